@@ -0,0 +1,95 @@
+package com.udacity.catpoint.app;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs SecurityService calls away from the Swing Event Dispatch Thread so repository writes and
+ * image analysis never freeze the GUI. Completion callbacks are run back on the EDT.
+ *
+ * Sensor and arming changes share one worker thread, so they reach the service in the order the
+ * user made them. Image scans run on a separate worker so a slow scan does not hold them up.
+ */
+public class BackgroundTasks {
+
+    private final ExecutorService serviceCalls = Executors.newSingleThreadExecutor(daemon("catpoint-service"));
+    private final ExecutorService imageScans = Executors.newSingleThreadExecutor(daemon("catpoint-image-scan"));
+    private final AtomicInteger pending = new AtomicInteger();
+    private final List<IntConsumer> pendingListeners = new CopyOnWriteArrayList<>();
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Queues a change to the security system.
+     * @param call The service call, run on the service worker
+     * @param onSuccess Run on the EDT once the call has completed normally
+     * @return A handle that can cancel the call
+     */
+    public Future<?> runServiceCall(Runnable call, Runnable onSuccess) {
+        return submit(serviceCalls, call, onSuccess, () -> {});
+    }
+
+    /**
+     * Queues an image scan. Cancelling interrupts the scan while it waits on the image service;
+     * a verdict that has already arrived is still applied by the service.
+     * @param call The service call, run on the image worker
+     * @param onFinished Run on the EDT once the scan has completed, failed or been cancelled
+     * @return A handle that can cancel the scan
+     */
+    public Future<?> runImageScan(Runnable call, Runnable onFinished) {
+        return submit(imageScans, call, () -> {}, onFinished);
+    }
+
+    /**
+     * Registers a listener for the number of queued or running calls. It is called on the EDT.
+     */
+    public void addPendingListener(IntConsumer listener) {
+        pendingListeners.add(listener);
+    }
+
+    private Future<?> submit(ExecutorService executor, Runnable call, Runnable onSuccess, Runnable onFinished) {
+        firePending(pending.incrementAndGet());
+        FutureTask<Void> task = new FutureTask<>(call, null) {
+            @Override
+            protected void done() {
+                firePending(pending.decrementAndGet());
+                SwingUtilities.invokeLater(() -> {
+                    try {
+                        get();
+                        onSuccess.run();
+                    } catch (CancellationException e) {
+                        //cancelled by the user, nothing to report
+                    } catch (ExecutionException e) {
+                        JOptionPane.showMessageDialog(null, "Operation failed: " + e.getCause().getMessage());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        onFinished.run();
+                    }
+                });
+            }
+        };
+        executor.execute(task);
+        return task;
+    }
+
+    private void firePending(int count) {
+        SwingUtilities.invokeLater(() -> pendingListeners.forEach(l -> l.accept(count)));
+    }
+}
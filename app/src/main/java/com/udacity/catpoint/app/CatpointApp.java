@@ -1,11 +1,22 @@
 package com.udacity.catpoint.app;
 
+import com.udacity.catpoint.core.Metrics;
+
+import javax.swing.*;
+
 /**
- * This is the main class that launches the application.
+ * This is the main class that launches the application. The window is built on the Event
+ * Dispatch Thread, as Swing requires. Loading the stored state and publishing JMX metrics are
+ * queued behind it, so they start only after the window has been shown.
  */
 public class CatpointApp {
     public static void main(String[] args) {
-        CatpointGui gui = new CatpointGui();
-        gui.setVisible(true);
+        StartupTimeline.start();
+        Metrics.deferRegistration();
+        SwingUtilities.invokeLater(() -> {
+            CatpointGui gui = new CatpointGui();
+            gui.setVisible(true);
+            SwingUtilities.invokeLater(gui::windowShown);
+        });
     }
 }
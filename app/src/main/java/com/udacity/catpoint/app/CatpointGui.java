@@ -1,45 +1,259 @@
 package com.udacity.catpoint.app;
 
 
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.ArmingStatus;
+import com.udacity.catpoint.core.Metrics;
+import com.udacity.catpoint.core.Sensor;
 import com.udacity.catpoint.image.AwsImageService;
+import com.udacity.catpoint.image.CachingImageService;
+import com.udacity.catpoint.image.DirectoryFrameSource;
 import com.udacity.catpoint.image.FakeImageService;
+import com.udacity.catpoint.image.FrameSource;
 import com.udacity.catpoint.image.ImageService;
+import com.udacity.catpoint.image.InstrumentedImageService;
+import com.udacity.catpoint.image.LazyImageService;
+import com.udacity.catpoint.image.LocalImageService;
+import com.udacity.catpoint.image.ReplayFrameSource;
+import com.udacity.catpoint.security.AlarmEventJournal;
+import com.udacity.catpoint.security.CameraFeed;
+import com.udacity.catpoint.security.InstrumentedSecurityRepository;
+import com.udacity.catpoint.security.InstrumentedSecurityService;
+import com.udacity.catpoint.security.LazySecurityRepository;
+import com.udacity.catpoint.security.MemoryMappedSecurityRepositoryImpl;
 import com.udacity.catpoint.security.PretendDatabaseSecurityRepositoryImpl;
 import com.udacity.catpoint.security.SecurityRepository;
 import com.udacity.catpoint.security.SecurityService;
+import com.udacity.catpoint.security.WriteAheadLogSecurityRepositoryImpl;
 import net.miginfocom.swing.MigLayout;
 
 import javax.swing.*;
+import java.awt.*;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This is the primary JFrame for the application that contains all the top-level JPanels.
  *
  * We're not using any dependency injection framework, so this class also handles constructing
- * all our dependencies and providing them to other classes as necessary.
+ * all our dependencies and providing them to other classes as necessary. The service, image
+ * service and repository are wrapped in their instrumented versions, so their latencies can be
+ * watched over JMX under com.udacity.catpoint.
+ *
+ * Nothing slow happens before the window is first painted. The repository is opened and the image
+ * backend built on first use, and the panels are filled in from a background call that
+ * {@link #windowShown()} queues once the window is on screen. See {@link StartupTimeline} for the
+ * measured milestones.
+ *
+ * On exit a shutdown hook stops the camera feed, waiting a bounded time for a frame still being
+ * analyzed, then closes the event journal and the repository, so closing the window never blocks
+ * the EDT.
  */
 public class CatpointGui extends JFrame {
-    private SecurityRepository securityRepository = new PretendDatabaseSecurityRepositoryImpl();
-    private ImageService imageService = new FakeImageService();
-    private SecurityService securityService = new SecurityService(securityRepository, imageService);
+    private static final Duration CAMERA_STOP_WAIT = Duration.ofSeconds(5);
+
+    private SecurityRepository securityRepository = new InstrumentedSecurityRepository(
+            new LazySecurityRepository(CatpointGui::createSecurityRepository));
+    private ImageService imageService = new InstrumentedImageService(withCache(new LazyImageService(CatpointGui::createImageService)));
+    private SecurityService securityService = new InstrumentedSecurityService(securityRepository, imageService);
+    private BackgroundTasks backgroundTasks = new BackgroundTasks();
     private DisplayPanel displayPanel = new DisplayPanel(securityService);
-    private ControlPanel controlPanel = new ControlPanel(securityService);
-    private SensorPanel sensorPanel = new SensorPanel(securityService);
-    private ImagePanel imagePanel = new ImagePanel(securityService);
+    private ControlPanel controlPanel = new ControlPanel(securityService, backgroundTasks);
+    private SensorPanel sensorPanel = new SensorPanel(securityService, backgroundTasks);
+    private ImagePanel imagePanel = new ImagePanel(securityService, backgroundTasks);
+    private JProgressBar busyIndicator = new JProgressBar();
+    private volatile CameraFeed cameraFeed;
+    private volatile AlarmEventJournal eventJournal;
+
+    /**
+     * State read by the initial load on the service worker and shown on the EDT.
+     */
+    private static class InitialState {
+        AlarmStatus alarmStatus;
+        ArmingStatus armingStatus;
+        List<Sensor> sensors;
+    }
 
     public CatpointGui() {
         setLocation(100, 100);
         setSize(600, 850);
         setTitle("Very Secure App");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        //catpoint.motionThreshold, e.g. 0.02, skips classifying camera frames that barely changed
+        securityService.setMotionThreshold(Double.parseDouble(System.getProperty("catpoint.motionThreshold", "-1")));
 
         JPanel mainPanel = new JPanel();
         mainPanel.setLayout(new MigLayout());
         mainPanel.add(displayPanel, "wrap");
         mainPanel.add(imagePanel, "wrap");
         mainPanel.add(controlPanel, "wrap");
-        mainPanel.add(sensorPanel);
+        mainPanel.add(sensorPanel, "wrap");
+
+        //shown while any service call is queued or running in the background
+        busyIndicator.setIndeterminate(true);
+        busyIndicator.setVisible(false);
+        backgroundTasks.addPendingListener(pending -> busyIndicator.setVisible(pending > 0));
+        mainPanel.add(busyIndicator, "growx");
 
         getContentPane().add(mainPanel);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutDown, "catpoint-shutdown"));
+        StartupTimeline.mark("window built");
+    }
+
+    /**
+     * Starts the slow part of startup. Call on the EDT after the window has been made visible, in
+     * an event of its own so the window can be painted first.
+     */
+    void windowShown() {
+        StartupTimeline.mark("window shown");
+        loadInitialState();
+        publishMetrics();
+    }
+
+    /**
+     * Starts the platform MBean server and registers the metrics collected so far, on a thread of
+     * its own as it takes a few hundred milliseconds.
+     */
+    private static void publishMetrics() {
+        Thread publisher = new Thread(() -> {
+            Metrics.publishDeferred();
+            StartupTimeline.mark("metrics published");
+        }, "catpoint-metrics");
+        publisher.setDaemon(true);
+        publisher.start();
+    }
+
+    /**
+     * Opens the repository and event journal on the service worker, then shows the stored state
+     * and starts the camera feed. Changes the user makes meanwhile are queued behind it.
+     */
+    private void loadInitialState() {
+        InitialState state = new InitialState();
+        backgroundTasks.runServiceCall(() -> {
+            eventJournal = new AlarmEventJournal();
+            securityService.setEventJournal(eventJournal);
+            state.alarmStatus = securityService.getAlarmStatus();
+            state.armingStatus = securityService.getArmingStatus();
+            state.sensors = new ArrayList<>(securityService.getSensors());
+            StartupTimeline.mark("state loaded");
+        }, () -> {
+            displayPanel.notify(state.alarmStatus);
+            controlPanel.showArmingStatus(state.armingStatus);
+            sensorPanel.showSensors(state.sensors);
+            StartupTimeline.mark("state shown");
+
+            FrameSource cameraSource = createCameraSource();
+            if (cameraSource != null) {
+                cameraFeed = new CameraFeed(securityService, cameraSource, 8);
+                cameraFeed.start();
+            }
+        });
+    }
+
+    /**
+     * Runs on exit. Stops the camera feed, then closes the journal and the repository so their
+     * last writes reach the disk.
+     */
+    private void shutDown() {
+        closeCameraFeed();
+        AlarmEventJournal journal = eventJournal;
+        if (journal != null) {
+            securityService.setEventJournal(null);
+            journal.close();
+        }
+        if (securityRepository instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                System.err.println("Could not close the repository: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops the camera feed, if one was started, so its source is released before the app exits.
+     * Stopping waits for the frame being analyzed, which with a remote backend is a network round
+     * trip, so it runs on a thread of its own and is abandoned after CAMERA_STOP_WAIT.
+     */
+    private void closeCameraFeed() {
+        CameraFeed feed = cameraFeed;
+        if (feed == null) {
+            return;
+        }
+        Thread closer = new Thread(() -> {
+            try {
+                feed.close();
+            } catch (IOException e) {
+                //exiting anyway, the source is released with the process
+                System.err.println("Could not close the camera feed: " + e.getMessage());
+            }
+        }, "catpoint-camera-close");
+        closer.setDaemon(true);
+        closer.start();
+        try {
+            closer.join(CAMERA_STOP_WAIT.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (closer.isAlive()) {
+            System.err.println("Camera feed did not stop within " + CAMERA_STOP_WAIT.toSeconds() + "s, exiting anyway");
+        }
+    }
+
+    /**
+     * Remembers recent verdicts when catpoint.imageCache gives the number of frames to keep, so
+     * frames that look the same as one seen in the last 30 seconds are not classified again.
+     */
+    private static ImageService withCache(ImageService imageService) {
+        int entries = Integer.getInteger("catpoint.imageCache", 0);
+        return entries > 0 ? new CachingImageService(imageService, entries, Duration.ofSeconds(30), 4) : imageService;
+    }
+
+    /**
+     * Picks the image service named by the catpoint.image system property: "aws" for Rekognition,
+     * "local" for the in-process classifier, anything else keeps the fake coin flip.
+     */
+    private static ImageService createImageService() {
+        return switch (System.getProperty("catpoint.image", "fake")) {
+            case "aws" -> new AwsImageService();
+            case "local" -> new LocalImageService();
+            default -> new FakeImageService();
+        };
+    }
+
+    /**
+     * Picks a continuous camera source from system properties: catpoint.camera.dir names a
+     * directory to watch for new frames, catpoint.camera.replay a directory of frames to play back
+     * in a loop at catpoint.camera.fps frames per second.
+     * @return The source, or null to keep the manual camera only
+     */
+    private static FrameSource createCameraSource() {
+        String watched = System.getProperty("catpoint.camera.dir");
+        if (watched != null) {
+            return new DirectoryFrameSource(Path.of(watched));
+        }
+        String replayed = System.getProperty("catpoint.camera.replay");
+        if (replayed != null) {
+            double fps = Double.parseDouble(System.getProperty("catpoint.camera.fps", "5"));
+            return ReplayFrameSource.fromDirectory(Path.of(replayed), fps, true);
+        }
+        return null;
+    }
 
+    /**
+     * Picks the repository implementation named by the catpoint.repository system property.
+     * Use "wal" for the append-only log store or "mapped" for the memory-mapped record store,
+     * anything else keeps the preferences store.
+     */
+    private static SecurityRepository createSecurityRepository() {
+        return switch (System.getProperty("catpoint.repository", "prefs")) {
+            case "wal" -> new WriteAheadLogSecurityRepositoryImpl();
+            case "mapped" -> new MemoryMappedSecurityRepositoryImpl();
+            default -> new PretendDatabaseSecurityRepositoryImpl();
+        };
     }
 }
@@ -10,7 +10,8 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
- * JPanel containing the buttons to manipulate arming status of the system.
+ * JPanel containing the buttons to manipulate arming status of the system. No button is highlighted
+ * until the current arming status is shown.
  */
 public class ControlPanel extends JPanel {
 
@@ -18,7 +19,7 @@ public class ControlPanel extends JPanel {
     private Map<ArmingStatus, JButton> buttonMap;
 
 
-    public ControlPanel(SecurityService securityService) {
+    public ControlPanel(SecurityService securityService, BackgroundTasks backgroundTasks) {
         super();
         setLayout(new MigLayout());
         this.securityService = securityService;
@@ -34,18 +35,18 @@ public class ControlPanel extends JPanel {
 
         //add an action listener to each button that applies its arming status and recolors all the buttons
         buttonMap.forEach((k, v) -> {
-            v.addActionListener(e -> {
-                securityService.setArmingStatus(k);
-                buttonMap.forEach((status, button) -> button.setBackground(status == k ? status.getColor() : null));
-            });
+            v.addActionListener(e -> backgroundTasks.runServiceCall(() -> securityService.setArmingStatus(k),
+                    () -> showArmingStatus(k)));
         });
 
         //map order above is arbitrary, so loop again in order to add buttons in enum-order
         Arrays.stream(ArmingStatus.values()).forEach(status -> add(buttonMap.get(status)));
+    }
 
-        ArmingStatus currentStatus = securityService.getArmingStatus();
-        buttonMap.get(currentStatus).setBackground(currentStatus.getColor());
-
-
+    /**
+     * Highlights the button of the given arming status and clears the others
+     */
+    public void showArmingStatus(ArmingStatus armingStatus) {
+        buttonMap.forEach((status, button) -> button.setBackground(status == armingStatus ? status.getColor() : null));
     }
 }
@@ -9,7 +9,8 @@ import javax.swing.*;
 
 /**
  * Displays the current status of the system. Implements the StatusListener
- * interface so that it can be notified whenever the status changes.
+ * interface so that it can be notified whenever the status changes. Shows a placeholder until the
+ * first status arrives.
  */
 public class DisplayPanel extends JPanel implements StatusListener {
 
@@ -19,16 +20,14 @@ public class DisplayPanel extends JPanel implements StatusListener {
         super();
         setLayout(new MigLayout());
 
-        securityService.addStatusListener(this);
+        securityService.addStatusListener(new EdtStatusListener(this));
 
         JLabel panelLabel = new JLabel("Very Secure Home Security");
         JLabel systemStatusLabel = new JLabel("System Status:");
-        currentStatusLabel = new JLabel();
+        currentStatusLabel = new JLabel("Loading...");
 
         panelLabel.setFont(StyleService.HEADING_FONT);
 
-        notify(securityService.getAlarmStatus());
-
         add(panelLabel, "span 2, wrap");
         add(systemStatusLabel);
         add(currentStatusLabel, "wrap");
@@ -0,0 +1,43 @@
+package com.udacity.catpoint.app;
+
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.StatusListener;
+
+import javax.swing.*;
+
+/**
+ * StatusListener that forwards every callback to a Swing component on the Event Dispatch Thread.
+ * The SecurityService notifies listeners on whichever thread changed its state, which is usually
+ * a background worker now, and Swing components must only be touched on the EDT.
+ */
+public class EdtStatusListener implements StatusListener {
+
+    private final StatusListener delegate;
+
+    public EdtStatusListener(StatusListener delegate) {
+        this.delegate = delegate;
+    }
+
+    private static void onEdt(Runnable r) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            r.run();
+        } else {
+            SwingUtilities.invokeLater(r);
+        }
+    }
+
+    @Override
+    public void notify(AlarmStatus status) {
+        onEdt(() -> delegate.notify(status));
+    }
+
+    @Override
+    public void catDetected(boolean catDetected) {
+        onEdt(() -> delegate.catDetected(catDetected));
+    }
+
+    @Override
+    public void sensorStatusChanged() {
+        onEdt(delegate::sensorStatusChanged);
+    }
+}
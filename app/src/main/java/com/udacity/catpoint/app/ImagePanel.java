@@ -2,6 +2,7 @@ package com.udacity.catpoint.app;
 
 import com.udacity.catpoint.core.AlarmStatus;
 import com.udacity.catpoint.core.StatusListener;
+import com.udacity.catpoint.image.ImageScaler;
 import com.udacity.catpoint.security.SecurityService;
 import net.miginfocom.swing.MigLayout;
 
@@ -11,25 +12,36 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.Future;
 
 /** Panel containing the 'camera' output. Allows users to 'refresh' the camera
  * by uploading their own picture, and 'scan' the picture, sending it for image analysis
  */
 public class ImagePanel extends JPanel implements StatusListener {
     private SecurityService securityService;
+    private BackgroundTasks backgroundTasks;
 
     private JLabel cameraHeader;
     private JLabel cameraLabel;
     private BufferedImage currentCameraImage;
+    private BufferedImage previewImage;
+    private JButton scanPictureButton;
+    private JProgressBar scanProgress;
+    private Future<?> scan;
 
     private int IMAGE_WIDTH = 300;
     private int IMAGE_HEIGHT = 225;
 
-    public ImagePanel(SecurityService securityService) {
+    //frames are scaled once to this size and the result is both previewed and sent for analysis;
+    //matches the default image.maxDimension of AwsImageService, so it does not scale them again
+    private static final int ANALYSIS_DIMENSION = 1024;
+
+    public ImagePanel(SecurityService securityService, BackgroundTasks backgroundTasks) {
         super();
         setLayout(new MigLayout());
         this.securityService = securityService;
-        securityService.addStatusListener(this);
+        this.backgroundTasks = backgroundTasks;
+        securityService.addStatusListener(new EdtStatusListener(this));
 
         cameraHeader = new JLabel("Camera Feed");
         cameraHeader.setFont(StyleService.HEADING_FONT);
@@ -50,25 +62,50 @@ public class ImagePanel extends JPanel implements StatusListener {
                 return;
             }
             try {
-                currentCameraImage = ImageIO.read(chooser.getSelectedFile());
-                Image tmp = new ImageIcon(currentCameraImage).getImage();
-                cameraLabel.setIcon(new ImageIcon(tmp.getScaledInstance(IMAGE_WIDTH, IMAGE_HEIGHT, Image.SCALE_SMOOTH)));
+                BufferedImage loaded = ImageIO.read(chooser.getSelectedFile());
+                currentCameraImage = ImageScaler.fitWithin(loaded, ANALYSIS_DIMENSION);
+                previewImage = ImageScaler.scale(currentCameraImage, IMAGE_WIDTH, IMAGE_HEIGHT);
+                cameraLabel.setIcon(new ImageIcon(previewImage));
             } catch (IOException |NullPointerException ioe) {
                 JOptionPane.showMessageDialog(null, "Invalid image selected.");
             }
             repaint();
         });
 
-        //button that sends the image to the image service
-        JButton scanPictureButton = new JButton("Scan Picture");
+        //button that sends the image to the image service, or cancels the scan in progress
+        scanPictureButton = new JButton("Scan Picture");
         scanPictureButton.addActionListener(e -> {
-            securityService.processImage(currentCameraImage);
+            if (scan != null) {
+                scan.cancel(true);
+            } else {
+                startScan();
+            }
         });
 
+        scanProgress = new JProgressBar();
+        scanProgress.setIndeterminate(true);
+        scanProgress.setVisible(false);
+
         add(cameraHeader, "span 3, wrap");
         add(cameraLabel, "span 3, wrap");
         add(addPictureButton);
         add(scanPictureButton);
+        add(scanProgress, "width 80:80:80");
+    }
+
+    /**
+     * Sends the current image for analysis in the background and turns the scan button into a
+     * cancel button until the scan is over.
+     */
+    private void startScan() {
+        BufferedImage image = currentCameraImage;
+        scanPictureButton.setText("Cancel Scan");
+        scanProgress.setVisible(true);
+        scan = backgroundTasks.runImageScan(() -> securityService.processImage(image), () -> {
+            scan = null;
+            scanPictureButton.setText("Scan Picture");
+            scanProgress.setVisible(false);
+        });
     }
 
     @Override
@@ -8,6 +8,7 @@ import com.udacity.catpoint.security.SecurityService;
 import net.miginfocom.swing.MigLayout;
 
 import javax.swing.*;
+import java.util.Collection;
 
 /**
  * Panel that allows users to add sensors to their system. Sensors may be
@@ -16,6 +17,7 @@ import javax.swing.*;
 public class SensorPanel extends JPanel implements StatusListener {
 
     private SecurityService securityService;
+    private BackgroundTasks backgroundTasks;
 
     private JLabel panelLabel = new JLabel("Sensor Management");
     private JLabel newSensorName = new JLabel("Name:");
@@ -23,29 +25,41 @@ public class SensorPanel extends JPanel implements StatusListener {
     private JTextField newSensorNameField = new JTextField();
     private JComboBox newSensorTypeDropdown = new JComboBox(SensorType.values());
     private JButton addNewSensorButton = new JButton("Add New Sensor");
+    private JButton removeSensorButton = new JButton("Remove Selected Sensor");
 
-    private JPanel sensorListPanel;
+    private SensorTableModel sensorTableModel = new SensorTableModel(this::setSensorActivity);
+    private JTable sensorTable = new JTable(sensorTableModel);
     private JPanel newSensorPanel;
 
-    public SensorPanel(SecurityService securityService) {
+    public SensorPanel(SecurityService securityService, BackgroundTasks backgroundTasks) {
         super();
         setLayout(new MigLayout());
         this.securityService = securityService;
+        this.backgroundTasks = backgroundTasks;
+        securityService.addStatusListener(new EdtStatusListener(this));
 
         panelLabel.setFont(StyleService.HEADING_FONT);
         addNewSensorButton.addActionListener(e ->
                 addSensor(new Sensor(newSensorNameField.getText(),
                         SensorType.valueOf(newSensorTypeDropdown.getSelectedItem().toString()))));
 
+        removeSensorButton.addActionListener(e -> {
+            int row = sensorTable.getSelectedRow();
+            if (row >= 0) {
+                removeSensor(sensorTableModel.getSensorAt(row));
+            }
+        });
+
         newSensorPanel = buildAddSensorPanel();
-        sensorListPanel = new JPanel();
-        sensorListPanel.setLayout(new MigLayout());
 
-        updateSensorList(sensorListPanel);
+        sensorTable.setFillsViewportHeight(true);
+        sensorTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        sensorTable.getColumnModel().getColumn(SensorTableModel.ACTIVE_COLUMN).setMaxWidth(60);
 
         add(panelLabel, "wrap");
         add(newSensorPanel, "span");
-        add(sensorListPanel, "span");
+        add(new JScrollPane(sensorTable), "span, width 500:500:500, height 150:200:300");
+        add(removeSensorButton, "span");
     }
 
     /**
@@ -63,60 +77,39 @@ public class SensorPanel extends JPanel implements StatusListener {
     }
 
     /**
-     * Requests the current list of sensors and updates the provided panel to display them. Sensors
-     * will display in the order that they are created.
-     * @param p The Panel to populate with the current list of sensors
+     * Replaces the rows of the sensor table
+     * @param sensors Every sensor in the system
      */
-    private void updateSensorList(JPanel p) {
-        p.removeAll();
-        securityService.getSensors().stream().sorted().forEach(s -> {
-            JLabel sensorLabel = new JLabel(String.format("%s(%s): %s", s.getName(),  s.getSensorType().toString(),(s.getActive() ? "Active" : "Inactive")));
-            JButton sensorToggleButton = new JButton((s.getActive() ? "Deactivate" : "Activate"));
-            JButton sensorRemoveButton = new JButton("Remove Sensor");
-
-            sensorToggleButton.addActionListener(e -> setSensorActivity(s, !s.getActive()) );
-            sensorRemoveButton.addActionListener(e -> removeSensor(s));
-
-            //hard code some sizes, tsk tsk
-            p.add(sensorLabel, "width 300:300:300");
-            p.add(sensorToggleButton, "width 100:100:100");
-            p.add(sensorRemoveButton, "wrap");
-        });
-
-        repaint();
-        revalidate();
+    public void showSensors(Collection<Sensor> sensors) {
+        sensorTableModel.setSensors(sensors);
     }
 
     /**
-     * Asks the securityService to change a sensor activation status and then rebuilds the current sensor list
+     * Asks the securityService to change a sensor activation status and then refreshes that sensor's row
      * @param sensor The sensor to update
      * @param isActive The sensor's activation status
      */
     private void setSensorActivity(Sensor sensor, Boolean isActive) {
-        securityService.changeSensorActivationStatus(sensor, isActive);
-        updateSensorList(sensorListPanel);
+        backgroundTasks.runServiceCall(() -> securityService.changeSensorActivationStatus(sensor, isActive),
+                () -> sensorTableModel.sensorUpdated(sensor));
     }
 
     /**
-     * Adds a sensor to the securityService and then rebuilds the sensor list
+     * Adds a sensor to the securityService and then inserts its row
      * @param sensor The sensor to add
      */
     private void addSensor(Sensor sensor) {
-        if(securityService.getSensors().size() < 4) {
-            securityService.addSensor(sensor);
-            updateSensorList(sensorListPanel);
-        } else {
-            JOptionPane.showMessageDialog(null, "To add more than 4 sensors, please subscribe to our Premium Membership!");
-        }
+        backgroundTasks.runServiceCall(() -> securityService.addSensor(sensor),
+                () -> sensorTableModel.sensorAdded(sensor));
     }
 
     /**
-     * Remove a sensor from the securityService and then rebuild the sensor list
+     * Remove a sensor from the securityService and then delete its row
      * @param sensor The sensor to remove
      */
     private void removeSensor(Sensor sensor) {
-        securityService.removeSensor(sensor);
-        updateSensorList(sensorListPanel);
+        backgroundTasks.runServiceCall(() -> securityService.removeSensor(sensor),
+                () -> sensorTableModel.sensorRemoved(sensor));
     }
 
     @Override
@@ -131,6 +124,6 @@ public class SensorPanel extends JPanel implements StatusListener {
 
     @Override
     public void sensorStatusChanged() {
-         updateSensorList(sensorListPanel);
+        sensorTableModel.allSensorsUpdated();
     }
 }
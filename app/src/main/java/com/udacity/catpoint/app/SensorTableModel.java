@@ -0,0 +1,124 @@
+package com.udacity.catpoint.app;
+
+import com.udacity.catpoint.core.Sensor;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Table model holding the sensors in sorted order. Adding, removing or toggling a sensor fires
+ * an event for that row only, so the JTable repaints just the affected row instead of the
+ * whole list.
+ */
+class SensorTableModel extends AbstractTableModel {
+
+    static final int NAME_COLUMN = 0;
+    static final int TYPE_COLUMN = 1;
+    static final int ACTIVE_COLUMN = 2;
+
+    private static final String[] COLUMN_NAMES = {"Name", "Sensor Type", "Active"};
+
+    private final List<Sensor> sensors = new ArrayList<>();
+    private final BiConsumer<Sensor, Boolean> activationHandler;
+
+    /**
+     * @param activationHandler Called when the user ticks or unticks the active box of a sensor
+     */
+    SensorTableModel(BiConsumer<Sensor, Boolean> activationHandler) {
+        this.activationHandler = activationHandler;
+    }
+
+    /**
+     * Replaces every row with the given sensors.
+     */
+    void setSensors(Collection<Sensor> sensors) {
+        this.sensors.clear();
+        this.sensors.addAll(sensors);
+        Collections.sort(this.sensors);
+        fireTableDataChanged();
+    }
+
+    void sensorAdded(Sensor sensor) {
+        int row = Collections.binarySearch(sensors, sensor);
+        if (row >= 0) {
+            return;
+        }
+        row = -row - 1;
+        sensors.add(row, sensor);
+        fireTableRowsInserted(row, row);
+    }
+
+    void sensorRemoved(Sensor sensor) {
+        int row = Collections.binarySearch(sensors, sensor);
+        if (row >= 0) {
+            sensors.remove(row);
+            fireTableRowsDeleted(row, row);
+        }
+    }
+
+    void sensorUpdated(Sensor sensor) {
+        int row = Collections.binarySearch(sensors, sensor);
+        if (row >= 0) {
+            fireTableRowsUpdated(row, row);
+        }
+    }
+
+    /**
+     * Repaints every row without rebuilding the model, for changes made outside the panel.
+     */
+    void allSensorsUpdated() {
+        if (!sensors.isEmpty()) {
+            fireTableRowsUpdated(0, sensors.size() - 1);
+        }
+    }
+
+    Sensor getSensorAt(int row) {
+        return sensors.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return sensors.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == ACTIVE_COLUMN ? Boolean.class : String.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column == ACTIVE_COLUMN;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Sensor sensor = sensors.get(row);
+        return switch (column) {
+            case NAME_COLUMN -> sensor.getName();
+            case TYPE_COLUMN -> sensor.getSensorType().toString();
+            default -> sensor.getActive();
+        };
+    }
+
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        if (column == ACTIVE_COLUMN) {
+            activationHandler.accept(sensors.get(row), (Boolean) value);
+        }
+    }
+}
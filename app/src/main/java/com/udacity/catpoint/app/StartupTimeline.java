@@ -0,0 +1,33 @@
+package com.udacity.catpoint.app;
+
+/**
+ * Reports how long after main() each startup milestone was reached, from building the window to
+ * the initial state arriving from the repository. Run with -Dcatpoint.timeline=true to print each
+ * milestone to stderr as it happens; otherwise marks cost nothing.
+ */
+public final class StartupTimeline {
+
+    private static final boolean PRINT = Boolean.getBoolean("catpoint.timeline");
+
+    private static volatile long startNanos = System.nanoTime();
+
+    private StartupTimeline() {
+    }
+
+    /**
+     * Starts the clock. Call first thing in main().
+     */
+    public static void start() {
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Records that a milestone has been reached.
+     * @param milestone Short description, such as "window shown"
+     */
+    public static void mark(String milestone) {
+        if (PRINT) {
+            System.err.println(String.format("startup %8.1f ms  %s", (System.nanoTime() - startNanos) / 1e6, milestone));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.image.BatchImageClassifier;
+import com.udacity.catpoint.image.BatchingImageService;
+import com.udacity.catpoint.image.FakeImageService;
+import com.udacity.catpoint.image.ImageService;
+import com.udacity.catpoint.image.SimulatedLatencyBatchClassifier;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frames per second through a simulated remote backend with 50ms per call, 2ms per frame and at
+ * most 4 calls served at once, from 32 concurrent callers. perFrame makes one backend call per frame, batched goes through
+ * BatchingImageService with at most 4 backend calls in flight.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(32)
+@Fork(1)
+public class BatchingBenchmark {
+
+    @Param({"8", "32"})
+    public int maxBatchSize;
+
+    private final BufferedImage frame = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+    private SimulatedLatencyBatchClassifier backend;
+    private BatchingImageService batching;
+
+    @Setup
+    public void setUp() {
+        backend = new SimulatedLatencyBatchClassifier(new FakeImageService(), Duration.ofMillis(50), Duration.ofMillis(2), 4);
+        batching = new BatchingImageService(backend, maxBatchSize, Duration.ofMillis(10), 4);
+    }
+
+    @TearDown
+    public void tearDown() {
+        batching.close();
+    }
+
+    @Benchmark
+    public boolean perFrame() {
+        return backend.imagesContainCat(List.of(frame), 50.0f)[0];
+    }
+
+    @Benchmark
+    public boolean batched() {
+        return batching.imageContainsCat(frame, 50.0f);
+    }
+}
@@ -0,0 +1,58 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.image.AwsImageService;
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The AwsImageService classification path against a stub client, so the numbers are the local
+ * encode cost only. legacyEncode reproduces the original ImageIO.write path for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageEncodeBenchmark {
+
+    @Param({"640x480", "1920x1080", "4000x3000"})
+    public String size;
+
+    private BufferedImage image;
+    private AwsImageService imageService;
+
+    @Setup
+    public void setUp() {
+        String[] dimensions = size.split("x");
+        int width = Integer.parseInt(dimensions[0]);
+        int height = Integer.parseInt(dimensions[1]);
+        image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.DARK_GRAY, width, height, Color.ORANGE));
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        imageService = new AwsImageService(new StubRekognitionClient(), 1024, 0.85f);
+    }
+
+    @Benchmark
+    public boolean imageContainsCat() {
+        return imageService.imageContainsCat(image, 50.0f);
+    }
+
+    @Benchmark
+    public byte[] legacyEncode() throws IOException {
+        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+            ImageIO.write(image, "jpg", os);
+            return os.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.ArmingStatus;
+import com.udacity.catpoint.core.Sensor;
+import com.udacity.catpoint.security.SecurityRepository;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Repository without any persistence, so service benchmarks measure only SecurityService itself.
+ */
+public class InMemorySecurityRepository implements SecurityRepository {
+
+    private final Set<Sensor> sensors = new ConcurrentSkipListSet<>();
+    private volatile AlarmStatus alarmStatus = AlarmStatus.NO_ALARM;
+    private volatile ArmingStatus armingStatus = ArmingStatus.DISARMED;
+
+    @Override
+    public void addSensor(Sensor sensor) {
+        sensors.add(sensor);
+    }
+
+    @Override
+    public void removeSensor(Sensor sensor) {
+        sensors.remove(sensor);
+    }
+
+    @Override
+    public void updateSensor(Sensor sensor) {
+        //sensors are held by reference, nothing to write
+    }
+
+    @Override
+    public void setAlarmStatus(AlarmStatus alarmStatus) {
+        this.alarmStatus = alarmStatus;
+    }
+
+    @Override
+    public void setArmingStatus(ArmingStatus armingStatus) {
+        this.armingStatus = armingStatus;
+    }
+
+    @Override
+    public Set<Sensor> getSensors() {
+        return sensors;
+    }
+
+    @Override
+    public AlarmStatus getAlarmStatus() {
+        return alarmStatus;
+    }
+
+    @Override
+    public ArmingStatus getArmingStatus() {
+        return armingStatus;
+    }
+}
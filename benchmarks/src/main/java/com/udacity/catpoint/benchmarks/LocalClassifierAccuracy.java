@@ -0,0 +1,60 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.image.LocalImageService;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the bundled LocalImageService model on synthetic frames it was not trained on, and
+ * the single frame and batch throughput at the camera resolution. Run with
+ * java -cp benchmarks/target/benchmarks.jar com.udacity.catpoint.benchmarks.LocalClassifierAccuracy
+ */
+public class LocalClassifierAccuracy {
+
+    private static final long TEST_SEED = 7;
+    private static final float THRESHOLD = 50.0f;
+
+    public static void main(String[] args) {
+        LocalImageService service = new LocalImageService();
+        List<SyntheticCatSamples.Sample> samples = SyntheticCatSamples.generate(1000, 640, 480, TEST_SEED);
+        List<BufferedImage> images = samples.stream().map(s -> s.image).collect(Collectors.toList());
+
+        int truePositive = 0;
+        int falsePositive = 0;
+        int trueNegative = 0;
+        int falseNegative = 0;
+        for (SyntheticCatSamples.Sample sample : samples) {
+            boolean predicted = service.imageContainsCat(sample.image, THRESHOLD);
+            if (predicted && sample.cat) {
+                truePositive++;
+            } else if (predicted) {
+                falsePositive++;
+            } else if (sample.cat) {
+                falseNegative++;
+            } else {
+                trueNegative++;
+            }
+        }
+        System.out.printf("synthetic held-out set: %d frames, accuracy %.3f, precision %.3f, recall %.3f%n",
+                samples.size(), (double) (truePositive + trueNegative) / samples.size(),
+                (double) truePositive / Math.max(1, truePositive + falsePositive),
+                (double) truePositive / Math.max(1, truePositive + falseNegative));
+
+        //warm up before timing
+        for (int i = 0; i < 3; i++) {
+            service.catConfidence(images);
+        }
+        long start = System.nanoTime();
+        for (BufferedImage image : images) {
+            service.catConfidence(image);
+        }
+        double single = (System.nanoTime() - start) / 1e6 / images.size();
+        start = System.nanoTime();
+        service.catConfidence(images);
+        double batch = (System.nanoTime() - start) / 1e9;
+        System.out.printf("640x480: %.2f ms per frame one at a time, %.0f frames/s in parallel batches%n",
+                single, images.size() / batch);
+    }
+}
@@ -0,0 +1,45 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.image.LocalImageService;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Throughput of the in-process classifier, one frame at a time and in parallel batches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalClassifierBenchmark {
+
+    @Param({"640x480", "1920x1080"})
+    public String size;
+
+    private LocalImageService service;
+    private List<BufferedImage> batch;
+
+    @Setup
+    public void setUp() {
+        String[] dimensions = size.split("x");
+        batch = SyntheticCatSamples.generate(32, Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]), 1)
+                .stream().map(s -> s.image).collect(Collectors.toList());
+        service = new LocalImageService();
+    }
+
+    @Benchmark
+    public float singleFrame() {
+        return service.catConfidence(batch.get(0));
+    }
+
+    @Benchmark
+    public float[] batchOf32() {
+        return service.catConfidence(batch);
+    }
+}
@@ -0,0 +1,87 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.Sensor;
+import com.udacity.catpoint.core.SensorType;
+import com.udacity.catpoint.security.WriteAheadLogSecurityRepositoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time to open the log store, and so to start the app with -Dcatpoint.repository=wal. The store
+ * is filled with the sensors followed by a history of activation changes, 4 per sensor. "replay"
+ * opens it with the whole history in the log, "snapshot" after it has been compacted, with a few
+ * hundred recent changes left in the live log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class RepositoryStartupBenchmark {
+
+    private static final int CHANGES_PER_SENSOR = 4;
+    private static final int TAIL_CHANGES = 500;
+
+    @Param({"replay", "snapshot"})
+    public String startup;
+
+    @Param({"10000", "1000000"})
+    public int sensorCount;
+
+    private Path directory;
+    private Path logFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("catpoint-startup");
+        logFile = directory.resolve("security.wal");
+        //one huge segment, so nothing is compacted until asked
+        try (WriteAheadLogSecurityRepositoryImpl repository = new WriteAheadLogSecurityRepositoryImpl(logFile, Long.MAX_VALUE)) {
+            List<Sensor> sensors = new ArrayList<>(sensorCount);
+            for (int i = 0; i < sensorCount; i++) {
+                Sensor sensor = new Sensor("sensor " + i, SensorType.values()[i % 3]);
+                sensors.add(sensor);
+            }
+            repository.updateSensors(sensors);
+            for (int round = 0; round < CHANGES_PER_SENSOR; round++) {
+                for (Sensor sensor : sensors) {
+                    sensor.setActive(!sensor.getActive());
+                }
+                repository.updateSensors(sensors);
+            }
+            if (startup.equals("snapshot")) {
+                repository.compact();
+                for (int i = 0; i < TAIL_CHANGES; i++) {
+                    Sensor sensor = sensors.get(i % sensorCount);
+                    sensor.setActive(!sensor.getActive());
+                    repository.updateSensor(sensor);
+                }
+            }
+            repository.setAlarmStatus(AlarmStatus.PENDING_ALARM);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int open() throws IOException {
+        try (WriteAheadLogSecurityRepositoryImpl repository = new WriteAheadLogSecurityRepositoryImpl(logFile, Long.MAX_VALUE)) {
+            return repository.getSensors().size();
+        }
+    }
+}
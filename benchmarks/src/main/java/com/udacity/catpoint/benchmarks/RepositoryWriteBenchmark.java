@@ -0,0 +1,85 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.Sensor;
+import com.udacity.catpoint.core.SensorType;
+import com.udacity.catpoint.security.MemoryMappedSecurityRepositoryImpl;
+import com.udacity.catpoint.security.SecurityRepository;
+import com.udacity.catpoint.security.WriteAheadLogSecurityRepositoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Write paths of the file backed repositories. PretendDatabaseSecurityRepositoryImpl is left out
+ * on purpose: it writes to the real user preferences node of the app, and preferences values are
+ * capped at 8KB, which only fits a few dozen sensors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositoryWriteBenchmark {
+
+    @Param({"wal", "mapped"})
+    public String store;
+
+    @Param({"10", "1000", "100000"})
+    public int sensorCount;
+
+    private Path directory;
+    private SecurityRepository repository;
+    private Sensor[] sensors;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("catpoint-bench");
+        repository = switch (store) {
+            case "wal" -> new WriteAheadLogSecurityRepositoryImpl(directory.resolve("security.wal"));
+            case "mapped" -> new MemoryMappedSecurityRepositoryImpl(directory.resolve("sensors.dat"));
+            default -> throw new IllegalArgumentException(store);
+        };
+        sensors = new Sensor[sensorCount];
+        for (int i = 0; i < sensorCount; i++) {
+            sensors[i] = new Sensor("sensor " + i, SensorType.DOOR);
+            repository.addSensor(sensors[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ((Closeable) repository).close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void updateSensor() {
+        Sensor sensor = sensors[next];
+        next = (next + 1) % sensors.length;
+        sensor.setActive(!sensor.getActive());
+        repository.updateSensor(sensor);
+    }
+
+    @Benchmark
+    public void addAndRemoveSensor() {
+        Sensor sensor = new Sensor("transient", SensorType.WINDOW);
+        repository.addSensor(sensor);
+        repository.removeSensor(sensor);
+    }
+
+    @Benchmark
+    public void setAlarmStatus() {
+        repository.setAlarmStatus(next++ % 2 == 0 ? AlarmStatus.PENDING_ALARM : AlarmStatus.NO_ALARM);
+    }
+}
@@ -0,0 +1,71 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.core.ArmingStatus;
+import com.udacity.catpoint.core.Sensor;
+import com.udacity.catpoint.core.SensorType;
+import com.udacity.catpoint.image.FakeImageService;
+import com.udacity.catpoint.security.SecurityService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the SecurityService state machine as the number of sensors grows, with persistence
+ * taken out of the picture by an in-memory repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityServiceBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int sensorCount;
+
+    private SecurityService securityService;
+    private Sensor[] sensors;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        securityService = new SecurityService(new InMemorySecurityRepository(), new FakeImageService());
+        SensorType[] types = SensorType.values();
+        sensors = new Sensor[sensorCount];
+        for (int i = 0; i < sensorCount; i++) {
+            sensors[i] = new Sensor("sensor " + i, types[i % types.length]);
+            securityService.addSensor(sensors[i]);
+        }
+        securityService.setArmingStatus(ArmingStatus.ARMED_AWAY);
+    }
+
+    /**
+     * Flips one sensor per call, walking through every sensor in turn.
+     */
+    @Benchmark
+    public void changeSensorActivationStatus() {
+        Sensor sensor = sensors[next];
+        next = (next + 1) % sensors.length;
+        securityService.changeSensorActivationStatus(sensor, !sensor.getActive());
+    }
+
+    /**
+     * Arming with nothing active, the common case.
+     */
+    @Benchmark
+    public void setArmingStatusNoActiveSensors() {
+        securityService.setArmingStatus(ArmingStatus.DISARMED);
+        securityService.setArmingStatus(ArmingStatus.ARMED_HOME);
+    }
+
+    /**
+     * Arming with one active sensor, which has to find and reset it.
+     */
+    @Benchmark
+    public void setArmingStatusOneActiveSensor() {
+        securityService.setArmingStatus(ArmingStatus.DISARMED);
+        securityService.changeSensorActivationStatus(sensors[sensors.length / 2], true);
+        securityService.setArmingStatus(ArmingStatus.ARMED_HOME);
+    }
+}
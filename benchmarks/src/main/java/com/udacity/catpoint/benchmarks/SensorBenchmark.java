@@ -0,0 +1,68 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.core.Sensor;
+import com.udacity.catpoint.core.SensorType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the Sensor methods that dominate sorting and hashing large sensor sets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SensorBenchmark {
+
+    @Param({"1000"})
+    public int sensorCount;
+
+    private Sensor[] sensors;
+    private Sensor sameName1;
+    private Sensor sameName2;
+
+    @Setup
+    public void setUp() {
+        SensorType[] types = SensorType.values();
+        sensors = new Sensor[sensorCount];
+        for (int i = 0; i < sensorCount; i++) {
+            //few distinct names, so comparisons regularly fall through to type and id
+            sensors[i] = new Sensor("sensor " + (i % 10), types[i % types.length]);
+        }
+        sameName1 = new Sensor("front door", SensorType.DOOR);
+        sameName2 = new Sensor("front door", SensorType.WINDOW);
+    }
+
+    @Benchmark
+    public int compareTo() {
+        return sameName1.compareTo(sameName2);
+    }
+
+    @Benchmark
+    public int hashCodeSingle() {
+        return sameName1.hashCode();
+    }
+
+    @Benchmark
+    public Sensor[] sortSensors() {
+        Sensor[] copy = sensors.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    @Benchmark
+    public void hashSensors(Blackhole blackhole) {
+        Set<Sensor> set = new HashSet<>(sensors.length * 2);
+        for (Sensor sensor : sensors) {
+            set.add(sensor);
+        }
+        blackhole.consume(set);
+    }
+}
@@ -0,0 +1,28 @@
+package com.udacity.catpoint.benchmarks;
+
+import software.amazon.awssdk.services.rekognition.RekognitionClient;
+import software.amazon.awssdk.services.rekognition.model.DetectLabelsRequest;
+import software.amazon.awssdk.services.rekognition.model.DetectLabelsResponse;
+
+/**
+ * Rekognition client that answers instantly with no labels, so AwsImageService can be benchmarked
+ * without network access or credentials.
+ */
+public class StubRekognitionClient implements RekognitionClient {
+
+    private static final DetectLabelsResponse EMPTY = DetectLabelsResponse.builder().build();
+
+    @Override
+    public DetectLabelsResponse detectLabels(DetectLabelsRequest detectLabelsRequest) {
+        return EMPTY;
+    }
+
+    @Override
+    public String serviceName() {
+        return "rekognition";
+    }
+
+    @Override
+    public void close() {
+    }
+}
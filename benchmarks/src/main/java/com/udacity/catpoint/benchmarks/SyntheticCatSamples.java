@@ -0,0 +1,178 @@
+package com.udacity.catpoint.benchmarks;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.awt.RenderingHints;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic sample set of drawn frames for training and measuring the local classifier. Half
+ * of the frames show a cartoon cat (body, head, ears, tail, optional stripes) in one of several
+ * fur colours; the other half show the same kinds of rooms with cat-free clutter, including
+ * objects in fur colours. The same seed always produces the same frames.
+ *
+ * These are not photographs. Accuracy measured on them shows the pipeline works and how fast it
+ * is, not how well it recognizes real cats.
+ */
+public final class SyntheticCatSamples {
+
+    /**
+     * A frame and whether it contains a cat.
+     */
+    public static final class Sample {
+        public final BufferedImage image;
+        public final boolean cat;
+
+        Sample(BufferedImage image, boolean cat) {
+            this.image = image;
+            this.cat = cat;
+        }
+    }
+
+    private static final Color[] FUR = {
+            new Color(222, 138, 58), new Color(150, 104, 68), new Color(128, 128, 128),
+            new Color(35, 32, 30), new Color(236, 232, 224), new Color(214, 184, 140)};
+    private static final Color[] ROOMS = {
+            new Color(224, 212, 188), new Color(150, 165, 180), new Color(96, 140, 74),
+            new Color(160, 118, 80), new Color(200, 200, 205), new Color(70, 74, 90)};
+
+    private SyntheticCatSamples() {
+    }
+
+    /**
+     * @param count Number of frames, alternating cat and no cat
+     * @param width Frame width
+     * @param height Frame height
+     * @param seed Seed for every random choice
+     */
+    public static List<Sample> generate(int count, int width, int height, long seed) {
+        Random random = new Random(seed);
+        List<Sample> samples = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boolean cat = i % 2 == 0;
+            samples.add(new Sample(draw(random, width, height, cat), cat));
+        }
+        return samples;
+    }
+
+    private static BufferedImage draw(Random random, int width, int height, boolean cat) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        Color wall = jitter(random, ROOMS[random.nextInt(ROOMS.length)], 20);
+        Color floor = jitter(random, ROOMS[random.nextInt(ROOMS.length)], 20);
+        int horizon = height / 2 + random.nextInt(height / 4);
+        g.setPaint(new GradientPaint(0, 0, wall.brighter(), 0, horizon, wall));
+        g.fillRect(0, 0, width, horizon);
+        g.setColor(floor);
+        g.fillRect(0, horizon, width, height - horizon);
+
+        int clutter = 1 + random.nextInt(4);
+        for (int i = 0; i < clutter; i++) {
+            drawClutter(g, random, width, height, cat);
+        }
+        if (cat) {
+            drawCat(g, random, width, height, horizon);
+        }
+        g.dispose();
+        addNoise(image, random, 12);
+        return image;
+    }
+
+    private static void drawClutter(Graphics2D g, Random random, int width, int height, boolean cat) {
+        //cat-free frames sometimes get fur coloured objects, so colour alone is not the answer
+        Color color = !cat && random.nextInt(3) == 0
+                ? jitter(random, FUR[random.nextInt(FUR.length)], 15)
+                : jitter(random, ROOMS[random.nextInt(ROOMS.length)], 40);
+        g.setColor(color);
+        int w = width / 8 + random.nextInt(width / 3);
+        int h = height / 8 + random.nextInt(height / 3);
+        int x = random.nextInt(width - w / 2);
+        int y = random.nextInt(height - h / 2);
+        switch (random.nextInt(3)) {
+            case 0 -> g.fillRect(x, y, w, h);
+            case 1 -> g.fill(new Ellipse2D.Double(x, y, w, w));
+            default -> {
+                g.fillRect(x, y, w, h / 5);
+                g.fillRect(x + w / 10, y, w / 10, h);
+                g.fillRect(x + w * 8 / 10, y, w / 10, h);
+            }
+        }
+    }
+
+    private static void drawCat(Graphics2D g, Random random, int width, int height, int horizon) {
+        Color fur = jitter(random, FUR[random.nextInt(FUR.length)], 15);
+        double bodyWidth = width * (0.25 + random.nextDouble() * 0.2);
+        double bodyHeight = bodyWidth * (0.45 + random.nextDouble() * 0.15);
+        double x = random.nextDouble() * (width - bodyWidth * 1.5) + bodyWidth * 0.25;
+        double y = Math.min(height - bodyHeight, horizon - bodyHeight * 0.3 + random.nextDouble() * bodyHeight * 0.5);
+        boolean facingRight = random.nextBoolean();
+        double head = bodyHeight * 0.75;
+        double headX = facingRight ? x + bodyWidth - head * 0.4 : x - head * 0.6;
+        double headY = y - head * 0.45;
+
+        g.setColor(fur);
+        g.setStroke(new BasicStroke((float) (bodyHeight * 0.12), BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        double tailX = facingRight ? x - bodyWidth * 0.25 : x + bodyWidth * 0.75;
+        g.draw(new Arc2D.Double(tailX, y - bodyHeight * 0.6, bodyWidth * 0.5, bodyHeight * 1.2,
+                facingRight ? 90 : -90, 180, Arc2D.OPEN));
+        g.fill(new Ellipse2D.Double(x, y, bodyWidth, bodyHeight));
+        g.fill(new Ellipse2D.Double(headX, headY, head, head));
+        g.fillPolygon(ear(headX + head * 0.08, headY + head * 0.3, head));
+        g.fillPolygon(ear(headX + head * 0.55, headY + head * 0.3, head));
+
+        if (random.nextInt(5) < 3) {
+            g.setColor(fur.darker().darker());
+            g.setStroke(new BasicStroke((float) (bodyHeight * 0.06)));
+            int stripes = 3 + random.nextInt(4);
+            for (int i = 1; i <= stripes; i++) {
+                int sx = (int) (x + bodyWidth * i / (stripes + 1));
+                g.drawLine(sx, (int) (y + bodyHeight * 0.1), sx - (int) (bodyHeight * 0.1), (int) (y + bodyHeight * 0.6));
+            }
+        }
+        g.setColor(new Color(40 + random.nextInt(120), 160 + random.nextInt(60), 40));
+        int eye = Math.max(2, (int) (head * 0.12));
+        g.fillOval((int) (headX + head * 0.25), (int) (headY + head * 0.38), eye, eye);
+        g.fillOval((int) (headX + head * 0.62), (int) (headY + head * 0.38), eye, eye);
+    }
+
+    private static Polygon ear(double x, double y, double head) {
+        Polygon ear = new Polygon();
+        ear.addPoint((int) x, (int) y);
+        ear.addPoint((int) (x + head * 0.37), (int) y);
+        ear.addPoint((int) (x + head * 0.18), (int) (y - head * 0.45));
+        return ear;
+    }
+
+    private static Color jitter(Random random, Color color, int amount) {
+        return new Color(clamp(color.getRed() + random.nextInt(2 * amount + 1) - amount),
+                clamp(color.getGreen() + random.nextInt(2 * amount + 1) - amount),
+                clamp(color.getBlue() + random.nextInt(2 * amount + 1) - amount));
+    }
+
+    private static void addNoise(BufferedImage image, Random random, int amount) {
+        int[] row = new int[image.getWidth()];
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.getRGB(0, y, row.length, 1, row, 0, row.length);
+            for (int x = 0; x < row.length; x++) {
+                int n = random.nextInt(2 * amount + 1) - amount;
+                int rgb = row[x];
+                row[x] = clamp(((rgb >> 16) & 0xFF) + n) << 16 | clamp(((rgb >> 8) & 0xFF) + n) << 8 | clamp((rgb & 0xFF) + n);
+            }
+            image.setRGB(0, y, row.length, 1, row, 0, row.length);
+        }
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+}
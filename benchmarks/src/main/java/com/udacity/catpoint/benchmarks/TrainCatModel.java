@@ -0,0 +1,37 @@
+package com.udacity.catpoint.benchmarks;
+
+import com.udacity.catpoint.image.CatModel;
+import com.udacity.catpoint.image.ImageFeatures;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Trains the bundled LocalImageService model on the synthetic sample set and writes it to the
+ * path given as the first argument. This is how image/src/main/resources/.../cat-model.properties
+ * was produced.
+ */
+public class TrainCatModel {
+
+    static final long TRAINING_SEED = 20221;
+    static final int TRAINING_SAMPLES = 4000;
+
+    public static void main(String[] args) throws IOException {
+        List<SyntheticCatSamples.Sample> samples = SyntheticCatSamples.generate(TRAINING_SAMPLES, 320, 240, TRAINING_SEED);
+        List<float[]> features = new ArrayList<>(samples.size());
+        boolean[] cats = new boolean[samples.size()];
+        for (int i = 0; i < samples.size(); i++) {
+            features.add(ImageFeatures.extract(samples.get(i).image));
+            cats[i] = samples.get(i).cat;
+        }
+        CatModel model = CatModel.train(features, cats, 200, TRAINING_SEED);
+        try (OutputStream out = Files.newOutputStream(Path.of(args[0]))) {
+            model.store(out, "Logistic regression over ImageFeatures, trained on " + TRAINING_SAMPLES
+                    + " synthetic frames (SyntheticCatSamples seed " + TRAINING_SEED + "), not on real photos");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.udacity.catpoint.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent histogram of durations in nanoseconds. Values are counted in buckets that split each
+ * power of two into eight, so every percentile is reported within 12.5% of the true value, and
+ * recording is a few atomic increments with no allocation, cheap enough to leave on in production.
+ *
+ * Counts accumulate from creation or the last reset. Percentiles read while other threads record
+ * may be off by the values recorded during the read.
+ */
+public class LatencyHistogram implements LatencyHistogramMXBean {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    //row 0 holds the values below SUB_BUCKETS exactly, row r > 0 the values with highest bit r + 2
+    private static final int ROWS = 64 - SUB_BUCKET_BITS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(ROWS * SUB_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one duration. Negative values count as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        long seen = max.get();
+        while (value > seen && !max.compareAndSet(seen, value)) {
+            seen = max.get();
+        }
+    }
+
+    /**
+     * Records the time elapsed since a System.nanoTime() reading.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @return The largest value that falls in the bucket.
+     */
+    static long highestValueIn(int bucket) {
+        int row = bucket / SUB_BUCKETS;
+        int sub = bucket % SUB_BUCKETS;
+        if (row == 0) {
+            return sub;
+        }
+        return ((long) (SUB_BUCKETS + sub + 1) << (row - 1)) - 1;
+    }
+
+    /**
+     * @param percentile From 0 to 100
+     * @return The value in nanoseconds that the given percentage of recorded values do not
+     * exceed, or 0 if nothing has been recorded.
+     */
+    public long percentile(double percentile) {
+        long recorded = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            recorded += buckets.get(i);
+        }
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    @Override
+    public long getCount() {
+        return count.get();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        long n = count.get();
+        return n == 0 ? 0 : total.get() / 1000.0 / n;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return max.get() / 1000.0;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return percentile(50) / 1000.0;
+    }
+
+    @Override
+    public double getP90Micros() {
+        return percentile(90) / 1000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return percentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return percentile(99.9) / 1000.0;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+}
@@ -0,0 +1,19 @@
+package com.udacity.catpoint.core;
+
+/**
+ * Management view of a {@link LatencyHistogram}, with times in microseconds.
+ */
+public interface LatencyHistogramMXBean {
+    long getCount();
+    double getMeanMicros();
+    double getMaxMicros();
+    double getP50Micros();
+    double getP90Micros();
+    double getP99Micros();
+    double getP999Micros();
+
+    /**
+     * Clears every recorded value.
+     */
+    void reset();
+}
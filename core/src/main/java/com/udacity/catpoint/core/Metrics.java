@@ -0,0 +1,87 @@
+package com.udacity.catpoint.core;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Publishes metrics on the platform MBean server under the com.udacity.catpoint domain, where
+ * JConsole, VisualVM or any JMX client can read them. The first bean registered under a name gets
+ * it as given; later ones get an instance property added, such as instance=2, so several
+ * instrumented components can be watched side by side.
+ *
+ * Starting the platform MBean server takes a few hundred milliseconds. An application that wants
+ * to keep it off its startup path can call {@link #deferRegistration()} first and
+ * {@link #publishDeferred()} once it is up; until then beans are only collected.
+ */
+public final class Metrics {
+
+    public static final String DOMAIN = "com.udacity.catpoint";
+
+    //beans waiting for publishDeferred, by name, or null when registering immediately
+    private static Map<String, Object> deferred;
+    //how many beans asked for each name
+    private static final Map<String, Integer> instances = new HashMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * Creates a histogram and registers it as com.udacity.catpoint:type=component,operation=operation.
+     */
+    public static LatencyHistogram latency(String component, String operation) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        register(histogram, "type=" + component + ",operation=" + operation);
+        return histogram;
+    }
+
+    /**
+     * Registers an MBean or MXBean as com.udacity.catpoint:properties, adding an instance
+     * property if another bean already asked for the same name.
+     * @param properties The key properties of the name, such as type=SecurityService
+     * @return The key properties the bean is registered under
+     * @throws IllegalStateException if the name is invalid or was taken outside this class
+     */
+    public static synchronized String register(Object bean, String properties) {
+        int instance = instances.merge(properties, 1, Integer::sum);
+        String unique = instance == 1 ? properties : properties + ",instance=" + instance;
+        if (deferred != null) {
+            deferred.put(unique, bean);
+        } else {
+            registerNow(bean, unique);
+        }
+        return unique;
+    }
+
+    private static void registerNow(Object bean, String properties) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(bean, new ObjectName(DOMAIN + ":" + properties));
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to register metrics " + properties, e);
+        }
+    }
+
+    /**
+     * Holds back registrations until {@link #publishDeferred()} is called.
+     */
+    public static synchronized void deferRegistration() {
+        if (deferred == null) {
+            deferred = new LinkedHashMap<>();
+        }
+    }
+
+    /**
+     * Registers every bean held back since {@link #deferRegistration()}, then goes back to
+     * registering immediately.
+     */
+    public static synchronized void publishDeferred() {
+        Map<String, Object> beans = deferred;
+        deferred = null;
+        if (beans != null) {
+            beans.forEach((properties, bean) -> registerNow(bean, properties));
+        }
+    }
+}
@@ -1,19 +1,24 @@
 package com.udacity.catpoint.core;
 
-
-import com.google.common.collect.ComparisonChain;
-
-import java.util.Objects;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.UUID;
 
 /**
  * Sensor POJO. Needs to know how to sort itself for display purposes.
+ *
+ * Sorting and hashing allocate nothing: sensors order by name, then sensor type name, then id,
+ * and the hash of the id is cached after first use. The cache is transient so Gson ignores it.
  */
 public class Sensor implements Comparable<Sensor> {
+    //alphabetical position of each sensor type's name, indexed by ordinal
+    private static final int[] TYPE_RANK = typeRanks();
+
     private UUID sensorId;
     private String name;
-    private Boolean active;
+    private boolean active;
     private SensorType sensorType;
+    private transient int hash;
 
     public Sensor() {
     }
@@ -22,7 +27,6 @@ public class Sensor implements Comparable<Sensor> {
         this.name = name;
         this.sensorType = sensorType;
         this.sensorId = UUID.randomUUID();
-        this.active = Boolean.FALSE;
     }
 
     @Override
@@ -35,7 +39,12 @@ public class Sensor implements Comparable<Sensor> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(sensorId);
+        int h = hash;
+        if (h == 0) {
+            h = sensorId.hashCode();
+            hash = h;
+        }
+        return h;
     }
 
     public String getName() {
@@ -46,11 +55,11 @@ public class Sensor implements Comparable<Sensor> {
         this.name = name;
     }
 
-    public Boolean getActive() {
+    public boolean getActive() {
         return active;
     }
 
-    public void setActive(Boolean active) {
+    public void setActive(boolean active) {
         this.active = active;
     }
 
@@ -68,14 +77,29 @@ public class Sensor implements Comparable<Sensor> {
 
     public void setSensorId(UUID sensorId) {
         this.sensorId = sensorId;
+        this.hash = 0;
     }
 
     @Override
     public int compareTo(Sensor o) {
-        return ComparisonChain.start()
-                .compare(this.name, o.name)
-                .compare(this.sensorType.toString(), o.sensorType.toString())
-                .compare(this.sensorId, o.sensorId)
-                .result();
+        int result = this.name.compareTo(o.name);
+        if (result != 0) {
+            return result;
+        }
+        result = Integer.compare(TYPE_RANK[this.sensorType.ordinal()], TYPE_RANK[o.sensorType.ordinal()]);
+        if (result != 0) {
+            return result;
+        }
+        return this.sensorId.compareTo(o.sensorId);
+    }
+
+    private static int[] typeRanks() {
+        SensorType[] byName = SensorType.values();
+        Arrays.sort(byName, Comparator.comparing(SensorType::name));
+        int[] ranks = new int[byName.length];
+        for (int rank = 0; rank < byName.length; rank++) {
+            ranks[byName[rank].ordinal()] = rank;
+        }
+        return ranks;
     }
 }
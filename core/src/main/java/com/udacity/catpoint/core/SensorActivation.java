@@ -0,0 +1,23 @@
+package com.udacity.catpoint.core;
+
+/**
+ * A single requested change to a sensor's activation status, as reported by a sensor gateway.
+ * Used to hand bursts of sensor events to the system in one call.
+ */
+public class SensorActivation {
+    private final Sensor sensor;
+    private final boolean active;
+
+    public SensorActivation(Sensor sensor, boolean active) {
+        this.sensor = sensor;
+        this.active = active;
+    }
+
+    public Sensor getSensor() {
+        return sensor;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+}
@@ -1,6 +1,6 @@
 module com.udacity.catpoint.core {
     exports com.udacity.catpoint.core;
     requires java.desktop;
-    requires com.google.common;
+    requires java.management;
     opens com.udacity.catpoint.core to com.google.gson;
-}
\ No newline at end of file
+}
@@ -0,0 +1,33 @@
+package com.udacity.catpoint.core;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+
+    @Test
+    void sameName_registeredTwice_keepsBothBeans() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+
+        assertEquals("type=MetricsTest,operation=register", Metrics.register(first, "type=MetricsTest,operation=register"));
+        assertEquals("type=MetricsTest,operation=register,instance=2",
+                Metrics.register(second, "type=MetricsTest,operation=register"));
+
+        assertTrue(server.isRegistered(new ObjectName(Metrics.DOMAIN + ":type=MetricsTest,operation=register")));
+        assertTrue(server.isRegistered(new ObjectName(Metrics.DOMAIN + ":type=MetricsTest,operation=register,instance=2")));
+    }
+
+    @Test
+    void nameTakenOutsideMetrics_fails() throws Exception {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new LatencyHistogram(),
+                new ObjectName(Metrics.DOMAIN + ":type=MetricsTest,operation=taken"));
+        assertThrows(IllegalStateException.class, () -> Metrics.register(new LatencyHistogram(), "type=MetricsTest,operation=taken"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.udacity.catpoint.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SensorTest {
+
+    @Test
+    void compareTo_ordersByName() {
+        Sensor back = new Sensor("Back door", SensorType.MOTION);
+        Sensor front = new Sensor("Front door", SensorType.DOOR);
+        assertTrue(back.compareTo(front) < 0);
+        assertTrue(front.compareTo(back) > 0);
+    }
+
+    @Test
+    void compareTo_sameName_ordersTypesAlphabetically() {
+        List<Sensor> sensors = new ArrayList<>();
+        for (SensorType type : SensorType.values()) {
+            sensors.add(new Sensor("Hall", type));
+        }
+        List<SensorType> types = new ArrayList<>();
+        new TreeSet<>(sensors).forEach(sensor -> types.add(sensor.getSensorType()));
+        assertEquals(List.of(SensorType.DOOR, SensorType.MOTION, SensorType.WINDOW), types);
+    }
+
+    @Test
+    void compareTo_sameNameAndType_ordersById() {
+        Sensor first = new Sensor("Hall", SensorType.DOOR);
+        Sensor second = new Sensor("Hall", SensorType.DOOR);
+        first.setSensorId(new UUID(0, 1));
+        second.setSensorId(new UUID(0, 2));
+        assertTrue(first.compareTo(second) < 0);
+        assertEquals(0, first.compareTo(first));
+    }
+
+    @Test
+    void equalsAndHashCode_followTheId() {
+        Sensor sensor = new Sensor("Hall", SensorType.DOOR);
+        Sensor copy = new Sensor("Renamed", SensorType.WINDOW);
+        copy.setSensorId(sensor.getSensorId());
+        assertEquals(sensor, copy);
+        assertEquals(sensor.hashCode(), copy.hashCode());
+        assertEquals(sensor.getSensorId().hashCode(), sensor.hashCode());
+    }
+
+    @Test
+    void setSensorId_resetsCachedHash() {
+        Sensor sensor = new Sensor("Hall", SensorType.DOOR);
+        int before = sensor.hashCode();
+        UUID id = new UUID(42, 42);
+        sensor.setSensorId(id);
+        assertEquals(id.hashCode(), sensor.hashCode());
+        assertNotEquals(before, sensor.hashCode());
+    }
+}
@@ -1,6 +1,8 @@
 package com.udacity.catpoint.image;
 
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
@@ -13,9 +15,7 @@ import software.amazon.awssdk.services.rekognition.model.DetectLabelsRequest;
 import software.amazon.awssdk.services.rekognition.model.DetectLabelsResponse;
 import software.amazon.awssdk.services.rekognition.model.Image;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
@@ -33,34 +33,79 @@ import java.util.stream.Collectors;
  *      aws.id=[your access key id]
  *      aws.secret=[your Secret access key]
  *      aws.region=[an aws region of choice. For example: us-east-2]
+ *
+ * Frames are scaled down and JPEG encoded by a per-thread {@link JpegEncoder} before upload. The
+ * optional keys image.maxDimension (default 1024) and image.quality (default 0.85) tune it.
+ *
+ * The properties are read and the client is built on the first scan rather than in the
+ * constructor, so choosing this service does not slow down application startup.
  */
 public class AwsImageService  implements ImageService{
 
     private Logger log = LoggerFactory.getLogger(AwsImageService.class);
 
+    private static final int DEFAULT_MAX_DIMENSION = 1024;
+    private static final float DEFAULT_QUALITY = 0.85f;
+
     //aws recommendation is to maintain only a single instance of client objects
-    private static RekognitionClient rekognitionClient;
+    private final Supplier<RekognitionClient> rekognitionClient;
+    private final Supplier<ThreadLocal<JpegEncoder>> encoders;
 
     public AwsImageService() {
+        Supplier<Properties> config = Suppliers.memoize(this::loadConfig);
+        encoders = Suppliers.memoize(() -> {
+            Properties props = config.get();
+            return encoders(
+                    Integer.parseInt(props.getProperty("image.maxDimension", String.valueOf(DEFAULT_MAX_DIMENSION))),
+                    Float.parseFloat(props.getProperty("image.quality", String.valueOf(DEFAULT_QUALITY))));
+        });
+        rekognitionClient = Suppliers.memoize(() -> buildClient(config.get()));
+    }
+
+    private Properties loadConfig() {
         Properties props = new Properties();
         try (InputStream is = getClass().getClassLoader().getResourceAsStream("config.properties")) {
+            if (is == null) {
+                log.error("Unable to initialize AWS Rekognition, no config.properties found on the classpath");
+                return props;
+            }
             props.load(is);
-        } catch (IOException ioe ) {
-            log.error("Unable to initialize AWS Rekognition, no properties file found", ioe);
-            return;
+        } catch (IOException e) {
+            log.error("Unable to initialize AWS Rekognition, config.properties could not be read", e);
         }
+        return props;
+    }
 
+    private static RekognitionClient buildClient(Properties props) {
         String awsId = props.getProperty("aws.id");
         String awsSecret = props.getProperty("aws.secret");
         String awsRegion = props.getProperty("aws.region");
+        if (awsId == null || awsSecret == null || awsRegion == null) {
+            throw new IllegalStateException("AWS Rekognition is not configured, see config.properties");
+        }
 
         AwsCredentials awsCredentials = AwsBasicCredentials.create(awsId, awsSecret);
-        rekognitionClient = RekognitionClient.builder()
+        return RekognitionClient.builder()
                 .credentialsProvider(StaticCredentialsProvider.create(awsCredentials))
                 .region(Region.of(awsRegion))
                 .build();
     }
 
+    /**
+     * Creates a service around an existing client, for example a stub in benchmarks.
+     * @param rekognitionClient Client used for label detection
+     * @param maxDimension Largest width or height uploaded; bigger frames are scaled down
+     * @param quality JPEG quality from 0 to 1
+     */
+    public AwsImageService(RekognitionClient rekognitionClient, int maxDimension, float quality) {
+        this.rekognitionClient = Suppliers.ofInstance(rekognitionClient);
+        this.encoders = Suppliers.ofInstance(encoders(maxDimension, quality));
+    }
+
+    private static ThreadLocal<JpegEncoder> encoders(int maxDimension, float quality) {
+        return ThreadLocal.withInitial(() -> new JpegEncoder(maxDimension, quality));
+    }
+
     /**
      * Returns true if the provided image contains a cat.
      * @param image Image to scan
@@ -69,16 +114,19 @@ public class AwsImageService  implements ImageService{
      */
     @Override
     public boolean imageContainsCat(BufferedImage image, float confidenceThreshhold) {
-        Image awsImage = null;
-        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
-            ImageIO.write(image, "jpg", os);
-            awsImage = Image.builder().bytes(SdkBytes.fromByteArray(os.toByteArray())).build();
+        Image awsImage;
+        try {
+            JpegEncoder encoder = encoders.get().get();
+            encoder.encode(image);
+            //the encoder writes into its own reused buffer; the one copy made here is what the SDK needs,
+            //since SdkBytes takes the whole array and the request may outlive the next encode on this thread
+            awsImage = Image.builder().bytes(SdkBytes.fromByteArrayUnsafe(encoder.toByteArray())).build();
         } catch (IOException ioe) {
             log.error("Error building image byte array", ioe);
             return false;
         }
         DetectLabelsRequest detectLabelsRequest = DetectLabelsRequest.builder().image(awsImage).minConfidence(confidenceThreshhold).build();
-        DetectLabelsResponse response = rekognitionClient.detectLabels(detectLabelsRequest);
+        DetectLabelsResponse response = rekognitionClient.get().detectLabels(detectLabelsRequest);
         logLabelsForFun(response);
         return response.labels().stream().filter(l -> l.name().toLowerCase().contains("cat")).findFirst().isPresent();
     }
@@ -0,0 +1,29 @@
+package com.udacity.catpoint.image;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * Backend that classifies several frames in one call, for use behind {@link BatchingImageService}.
+ */
+public interface BatchImageClassifier {
+
+    /**
+     * @return Whether each frame contains a cat, in the order given
+     */
+    boolean[] imagesContainCat(List<BufferedImage> images, float confidenceThreshhold);
+
+    /**
+     * Adapts a single frame ImageService by classifying the frames one after the other. Useful
+     * for services such as Rekognition DetectLabels that have no multi-image request.
+     */
+    static BatchImageClassifier of(ImageService imageService) {
+        return (images, confidenceThreshhold) -> {
+            boolean[] cats = new boolean[images.size()];
+            for (int i = 0; i < cats.length; i++) {
+                cats[i] = imageService.imageContainsCat(images.get(i), confidenceThreshhold);
+            }
+            return cats;
+        };
+    }
+}
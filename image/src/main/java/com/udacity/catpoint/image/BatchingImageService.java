@@ -0,0 +1,216 @@
+package com.udacity.catpoint.image;
+
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ImageService front end that groups concurrent requests into batches for a
+ * {@link BatchImageClassifier}, so the per-request overhead of a remote backend is paid once per
+ * batch instead of once per frame.
+ *
+ * A batch is sent when it reaches the maximum size or when its oldest frame has waited for the
+ * maximum wait, whichever comes first. Only a limited number of batches are in flight at once;
+ * frames that arrive while all of them are busy have usually used up their wait by the time a
+ * slot frees, so under load batches go out full and straight away, and under light load no frame
+ * waits longer than the window.
+ */
+public class BatchingImageService implements ImageService, AutoCloseable {
+
+    private static class Request {
+        final BufferedImage image;
+        final float confidenceThreshhold;
+        final long enqueuedAt = System.nanoTime();
+        final CompletableFuture<Boolean> verdict = new CompletableFuture<>();
+
+        Request(BufferedImage image, float confidenceThreshhold) {
+            this.image = image;
+            this.confidenceThreshhold = confidenceThreshhold;
+        }
+    }
+
+    //how many full batches may wait before new frames are refused
+    private static final int QUEUED_BATCHES = 64;
+
+    private final BatchImageClassifier backend;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<Request> queue;
+    private final int maxConcurrentBatches;
+    private final Semaphore batchSlots;
+    private final ExecutorService backendCalls;
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+
+    /**
+     * @param backend Classifies each batch
+     * @param maxBatchSize Most frames sent in one call
+     * @param maxWait Longest a frame waits for others to share its batch
+     * @param maxConcurrentBatches Most backend calls in flight at once
+     */
+    public BatchingImageService(BatchImageClassifier backend, int maxBatchSize, Duration maxWait, int maxConcurrentBatches) {
+        if (maxBatchSize < 1 || maxConcurrentBatches < 1) {
+            throw new IllegalArgumentException("maxBatchSize and maxConcurrentBatches must be positive");
+        }
+        this.backend = backend;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.queue = new ArrayBlockingQueue<>(maxBatchSize * QUEUED_BATCHES);
+        this.maxConcurrentBatches = maxConcurrentBatches;
+        this.batchSlots = new Semaphore(maxConcurrentBatches);
+        this.backendCalls = ImageServiceExecutor.create(maxConcurrentBatches, maxConcurrentBatches);
+        dispatcher = new Thread(this::dispatchLoop, "image-batcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @Override
+    public boolean imageContainsCat(BufferedImage image, float confidenceThreshhold) {
+        try {
+            return imageContainsCatAsync(image, confidenceThreshhold).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Queues the frame for the next batch.
+     * @return A future completing with the frame's verdict. Fails with a
+     * RejectedExecutionException if too many frames are waiting or the service is closed.
+     */
+    @Override
+    public CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage image, float confidenceThreshhold) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Batching image service is closed"));
+        }
+        Request request = new Request(image, confidenceThreshhold);
+        if (!queue.offer(request)) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Too many frames waiting for a batch"));
+        }
+        return request.verdict;
+    }
+
+    private void dispatchLoop() {
+        List<Request> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                batchSlots.acquire();
+                Request first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    batchSlots.release();
+                    continue;
+                }
+                batch.add(first);
+                long deadline = first.enqueuedAt + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Request next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                List<Request> full = List.copyOf(batch);
+                batch.clear();
+                backendCalls.execute(() -> {
+                    try {
+                        dispatch(full);
+                    } finally {
+                        batchSlots.release();
+                    }
+                });
+            }
+            //wait for the batches still in flight
+            batchSlots.acquire(maxConcurrentBatches);
+        } catch (InterruptedException e) {
+            batch.forEach(r -> r.verdict.completeExceptionally(e));
+        } finally {
+            backendCalls.shutdown();
+        }
+    }
+
+    private void dispatch(List<Request> batch) {
+        //callers almost always share one threshold, but the backend takes one per call
+        Map<Float, List<Request>> byThreshold = new LinkedHashMap<>();
+        for (Request request : batch) {
+            byThreshold.computeIfAbsent(request.confidenceThreshhold, t -> new ArrayList<>()).add(request);
+        }
+        byThreshold.forEach((threshold, group) -> {
+            List<BufferedImage> images = new ArrayList<>(group.size());
+            group.forEach(r -> images.add(r.image));
+            batches.increment();
+            requests.add(group.size());
+            try {
+                boolean[] cats = backend.imagesContainCat(images, threshold);
+                if (cats.length != group.size()) {
+                    throw new IllegalStateException("Backend answered " + cats.length + " of " + group.size() + " frames");
+                }
+                for (int i = 0; i < cats.length; i++) {
+                    group.get(i).verdict.complete(cats[i]);
+                }
+            } catch (RuntimeException e) {
+                group.forEach(r -> r.verdict.completeExceptionally(e));
+            }
+        });
+    }
+
+    /**
+     * @return The number of calls made to the backend.
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * @return The number of frames sent to the backend.
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * @return The mean number of frames per backend call, or 0 before the first call.
+     */
+    public double getAverageBatchSize() {
+        long b = batches.sum();
+        return b == 0 ? 0 : (double) requests.sum() / b;
+    }
+
+    /**
+     * Stops accepting frames, sends the ones already queued and waits for their answers. If the
+     * caller is interrupted while waiting, frames still queued are failed and the interrupt flag
+     * is set again.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        //frames queued after the dispatcher made its last check
+        Request request;
+        while ((request = queue.poll()) != null) {
+            request.verdict.completeExceptionally(new RejectedExecutionException("Batching image service is closed"));
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.udacity.catpoint.image;
+
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * ImageService decorator that remembers recent answers keyed by the perceptual hash of the image.
+ * Frames whose hash is within the configured Hamming distance of a cached frame reuse its answer
+ * instead of being classified again. Entries expire after a fixed time and the least recently
+ * used entry is evicted when the cache is full.
+ *
+ * Near matches are found without scanning the whole cache. Each hash is split into maxDistance + 1
+ * bands, and two hashes within maxDistance bits of each other must agree on at least one whole
+ * band, so a lookup only compares hashes that share a band with the frame.
+ */
+public class CachingImageService implements ImageService {
+
+    private static class Entry {
+        final boolean cat;
+        final float confidenceThreshhold;
+        final long expiresAt;
+
+        Entry(boolean cat, float confidenceThreshhold, long expiresAt) {
+            this.cat = cat;
+            this.confidenceThreshhold = confidenceThreshhold;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    //hashes within this distance share a band of at least four bits
+    private static final int MAX_DISTANCE = 15;
+
+    private final ImageService delegate;
+    private final int maxDistance;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Map<Long, Entry> entries;
+    //per band, the cached entries by the value of that band, guarded by entries
+    private final List<Map<Long, Map<Long, Entry>>> bands = new ArrayList<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param delegate The service that classifies frames not found in the cache
+     * @param maxEntries Maximum number of remembered frames
+     * @param ttl How long an answer stays valid
+     * @param maxDistance Maximum number of differing hash bits for two frames to count as the same,
+     *                    from 0 to 15
+     */
+    public CachingImageService(ImageService delegate, int maxEntries, Duration ttl, int maxDistance) {
+        this(delegate, maxEntries, ttl, maxDistance, System::nanoTime);
+    }
+
+    CachingImageService(ImageService delegate, int maxEntries, Duration ttl, int maxDistance, LongSupplier clock) {
+        if (maxDistance < 0 || maxDistance > MAX_DISTANCE) {
+            throw new IllegalArgumentException("maxDistance must be between 0 and " + MAX_DISTANCE);
+        }
+        this.delegate = delegate;
+        this.maxDistance = maxDistance;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > maxEntries) {
+                    unindex(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+        if (maxDistance > 0) {
+            for (int band = 0; band <= maxDistance; band++) {
+                bands.add(new HashMap<>());
+            }
+        }
+    }
+
+    @Override
+    public boolean imageContainsCat(BufferedImage image, float confidenceThreshhold) {
+        long hash = PerceptualHash.dHash(image);
+        Entry cached = lookup(hash, confidenceThreshhold);
+        if (cached != null) {
+            return cached.cat;
+        }
+        boolean cat = delegate.imageContainsCat(image, confidenceThreshhold);
+        store(hash, cat, confidenceThreshhold);
+        return cat;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage image, float confidenceThreshhold) {
+        long hash = PerceptualHash.dHash(image);
+        Entry cached = lookup(hash, confidenceThreshhold);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.cat);
+        }
+        return delegate.imageContainsCatAsync(image, confidenceThreshhold)
+                .thenApply(cat -> {
+                    store(hash, cat, confidenceThreshhold);
+                    return cat;
+                });
+    }
+
+    private Entry lookup(long hash, float confidenceThreshhold) {
+        long now = clock.getAsLong();
+        Entry found;
+        synchronized (entries) {
+            Entry exact = entries.get(hash);
+            found = isUsable(exact, confidenceThreshhold, now) ? exact : nearest(hash, confidenceThreshhold, now);
+        }
+        if (found != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return found;
+    }
+
+    /**
+     * @return The usable entry closest to the hash within maxDistance, or null. Expired entries
+     * met on the way are dropped.
+     */
+    private Entry nearest(long hash, float confidenceThreshhold, long now) {
+        Long nearest = null;
+        int nearestDistance = Integer.MAX_VALUE;
+        List<Long> expired = new ArrayList<>();
+        for (int band = 0; band < bands.size(); band++) {
+            Map<Long, Entry> candidates = bands.get(band).get(bandValue(hash, band));
+            if (candidates == null) {
+                continue;
+            }
+            for (Map.Entry<Long, Entry> candidate : candidates.entrySet()) {
+                int distance = PerceptualHash.distance(hash, candidate.getKey());
+                if (candidate.getValue().expiresAt - now <= 0) {
+                    expired.add(candidate.getKey());
+                } else if (distance <= maxDistance && distance < nearestDistance
+                        && candidate.getValue().confidenceThreshhold == confidenceThreshhold) {
+                    nearest = candidate.getKey();
+                    nearestDistance = distance;
+                }
+            }
+        }
+        for (Long key : expired) {
+            entries.remove(key);
+            unindex(key);
+        }
+        return nearest == null ? null : entries.get(nearest); //refreshes its LRU position
+    }
+
+    private long bandValue(long hash, int band) {
+        int from = band * Long.SIZE / bands.size();
+        int to = (band + 1) * Long.SIZE / bands.size();
+        return (hash >>> from) & ((1L << (to - from)) - 1);
+    }
+
+    private void index(long hash, Entry entry) {
+        for (int band = 0; band < bands.size(); band++) {
+            bands.get(band).computeIfAbsent(bandValue(hash, band), value -> new HashMap<>()).put(hash, entry);
+        }
+    }
+
+    private void unindex(long hash) {
+        for (int band = 0; band < bands.size(); band++) {
+            long value = bandValue(hash, band);
+            Map<Long, Entry> bucket = bands.get(band).get(value);
+            if (bucket != null) {
+                bucket.remove(hash);
+                if (bucket.isEmpty()) {
+                    bands.get(band).remove(value);
+                }
+            }
+        }
+    }
+
+    private static boolean isUsable(Entry entry, float confidenceThreshhold, long now) {
+        return entry != null && entry.confidenceThreshhold == confidenceThreshhold && entry.expiresAt - now > 0;
+    }
+
+    private void store(long hash, boolean cat, float confidenceThreshhold) {
+        Entry entry = new Entry(cat, confidenceThreshhold, clock.getAsLong() + ttlNanos);
+        synchronized (entries) {
+            index(hash, entry);
+            entries.put(hash, entry);
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The fraction of lookups answered from the cache, or 0 before the first lookup.
+     */
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * Forgets every cached answer.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            bands.forEach(Map::clear);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.udacity.catpoint.image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Logistic regression over {@link ImageFeatures}. Features are standardized with the mean and
+ * spread seen in training, and the model answers with a cat confidence from 0 to 100, on the same
+ * scale as the Rekognition label confidence.
+ *
+ * Models are stored as properties files with the keys features, mean, scale, weights (comma
+ * separated) and bias.
+ */
+public class CatModel {
+
+    private final float[] mean;
+    private final float[] scale;
+    private final float[] weights;
+    private final float bias;
+
+    public CatModel(float[] mean, float[] scale, float[] weights, float bias) {
+        if (mean.length != ImageFeatures.FEATURE_COUNT || scale.length != mean.length || weights.length != mean.length) {
+            throw new IllegalArgumentException("Model must have " + ImageFeatures.FEATURE_COUNT + " features");
+        }
+        this.mean = mean.clone();
+        this.scale = scale.clone();
+        this.weights = weights.clone();
+        this.bias = bias;
+    }
+
+    /**
+     * @return The cat confidence from 0 to 100 for a feature vector.
+     */
+    public float confidence(float[] features) {
+        double z = bias;
+        for (int i = 0; i < weights.length; i++) {
+            z += weights[i] * (features[i] - mean[i]) / scale[i];
+        }
+        return (float) (100 / (1 + Math.exp(-z)));
+    }
+
+    public static CatModel load(InputStream in) {
+        Properties props = new Properties();
+        try {
+            props.load(in);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Unable to read cat model", ioe);
+        }
+        int features = Integer.parseInt(props.getProperty("features"));
+        if (features != ImageFeatures.FEATURE_COUNT) {
+            throw new IllegalArgumentException("Model was trained on " + features + " features, expected "
+                    + ImageFeatures.FEATURE_COUNT);
+        }
+        return new CatModel(parse(props.getProperty("mean")), parse(props.getProperty("scale")),
+                parse(props.getProperty("weights")), Float.parseFloat(props.getProperty("bias")));
+    }
+
+    public void store(OutputStream out, String comment) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("features", String.valueOf(weights.length));
+        props.setProperty("mean", format(mean));
+        props.setProperty("scale", format(scale));
+        props.setProperty("weights", format(weights));
+        props.setProperty("bias", String.valueOf(bias));
+        props.store(out, comment);
+    }
+
+    private static float[] parse(String values) {
+        String[] parts = values.split(",");
+        float[] parsed = new float[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            parsed[i] = Float.parseFloat(parts[i].trim());
+        }
+        return parsed;
+    }
+
+    private static String format(float[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (float value : values) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(value);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Fits a model to labelled feature vectors with mini-batch gradient descent and a little L2
+     * regularization. Use it to train on frames from the actual cameras.
+     * @param features Feature vectors from {@link ImageFeatures#extract}
+     * @param cats Whether each vector came from a frame with a cat in it
+     * @param epochs Passes over the data
+     * @param seed Seed for the shuffling order
+     */
+    public static CatModel train(List<float[]> features, boolean[] cats, int epochs, long seed) {
+        int n = features.size();
+        int d = ImageFeatures.FEATURE_COUNT;
+        float[] mean = new float[d];
+        float[] scale = new float[d];
+        for (float[] x : features) {
+            for (int j = 0; j < d; j++) {
+                mean[j] += x[j] / n;
+            }
+        }
+        for (float[] x : features) {
+            for (int j = 0; j < d; j++) {
+                scale[j] += (x[j] - mean[j]) * (x[j] - mean[j]) / n;
+            }
+        }
+        for (int j = 0; j < d; j++) {
+            scale[j] = scale[j] > 1e-12f ? (float) Math.sqrt(scale[j]) : 1f;
+        }
+
+        double[] w = new double[d];
+        double b = 0;
+        double learningRate = 0.1;
+        double l2 = 1e-3;
+        int batch = 32;
+        int[] order = new int[n];
+        Arrays.setAll(order, i -> i);
+        Random random = new Random(seed);
+        double[] x = new double[d];
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            for (int i = n - 1; i > 0; i--) {
+                int k = random.nextInt(i + 1);
+                int t = order[i];
+                order[i] = order[k];
+                order[k] = t;
+            }
+            for (int start = 0; start < n; start += batch) {
+                int end = Math.min(n, start + batch);
+                double[] gradient = new double[d];
+                double biasGradient = 0;
+                for (int s = start; s < end; s++) {
+                    float[] raw = features.get(order[s]);
+                    double z = b;
+                    for (int j = 0; j < d; j++) {
+                        x[j] = (raw[j] - mean[j]) / scale[j];
+                        z += w[j] * x[j];
+                    }
+                    double error = 1 / (1 + Math.exp(-z)) - (cats[order[s]] ? 1 : 0);
+                    for (int j = 0; j < d; j++) {
+                        gradient[j] += error * x[j];
+                    }
+                    biasGradient += error;
+                }
+                int size = end - start;
+                for (int j = 0; j < d; j++) {
+                    w[j] -= learningRate * (gradient[j] / size + l2 * w[j]);
+                }
+                b -= learningRate * biasGradient / size;
+            }
+        }
+        float[] weights = new float[d];
+        for (int j = 0; j < d; j++) {
+            weights[j] = (float) w[j];
+        }
+        return new CatModel(mean, scale, weights, (float) b);
+    }
+}
@@ -0,0 +1,98 @@
+package com.udacity.catpoint.image;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+
+/**
+ * FrameSource that watches a directory and yields every image file that appears in it, in the
+ * order the file system reports them. Cameras should write each frame elsewhere and move it into
+ * the directory once complete, otherwise a half-written file may be picked up and skipped.
+ */
+public class DirectoryFrameSource implements FrameSource {
+
+    private static final Logger log = LoggerFactory.getLogger(DirectoryFrameSource.class);
+
+    private final Path directory;
+    private final WatchService watchService;
+    private final Deque<Path> pending = new ArrayDeque<>();
+
+    public DirectoryFrameSource(Path directory) {
+        this.directory = directory;
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Unable to watch frame directory " + directory, ioe);
+        }
+    }
+
+    @Override
+    public BufferedImage nextFrame() throws InterruptedException {
+        while (true) {
+            while (!pending.isEmpty()) {
+                BufferedImage frame = read(pending.poll());
+                if (frame != null) {
+                    return frame;
+                }
+            }
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (ClosedWatchServiceException e) {
+                return null;
+            }
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    log.warn("Frames arrived faster than they could be listed, some were missed");
+                } else if (isImageFile((Path) event.context())) {
+                    pending.add(directory.resolve((Path) event.context()));
+                }
+            }
+            key.reset();
+        }
+    }
+
+    static boolean isImageFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".jpg") || name.endsWith(".jpeg") || name.endsWith(".png")
+                || name.endsWith(".bmp") || name.endsWith(".gif");
+    }
+
+    /**
+     * @return The decoded frame, or null if the file could not be read.
+     */
+    static BufferedImage read(Path file) {
+        try {
+            BufferedImage frame = ImageIO.read(file.toFile());
+            if (frame == null) {
+                log.warn("Skipping frame {}, not a readable image", file);
+            }
+            return frame;
+        } catch (IOException ioe) {
+            log.warn("Skipping frame {}", file, ioe);
+            return null;
+        }
+    }
+
+    /**
+     * Stops watching. A thread waiting in nextFrame() receives null.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
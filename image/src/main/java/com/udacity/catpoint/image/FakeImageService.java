@@ -2,6 +2,7 @@ package com.udacity.catpoint.image;
 
 import java.awt.image.BufferedImage;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service that tries to guess if an image displays a cat.
@@ -12,4 +13,9 @@ public class FakeImageService implements ImageService {
     public boolean imageContainsCat(BufferedImage image, float confidenceThreshhold) {
         return r.nextBoolean();
     }
+
+    @Override
+    public CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage image, float confidenceThreshhold) {
+        return CompletableFuture.completedFuture(imageContainsCat(image, confidenceThreshhold));
+    }
 }
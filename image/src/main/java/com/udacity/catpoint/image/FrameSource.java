@@ -0,0 +1,17 @@
+package com.udacity.catpoint.image;
+
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A camera that produces a stream of frames.
+ */
+public interface FrameSource extends Closeable {
+
+    /**
+     * Waits until the next frame is available.
+     * @return The frame, or null once the source has no more frames
+     */
+    BufferedImage nextFrame() throws IOException, InterruptedException;
+}
@@ -0,0 +1,55 @@
+package com.udacity.catpoint.image;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Reduces an image to a small grid of average luminance values. Cheap enough to run on every
+ * camera frame, so it is used to fingerprint and compare frames before paying for classification.
+ */
+public final class GrayscaleSampler {
+
+    //upper bound on pixels read per grid cell in each direction; large frames are strided
+    private static final int MAX_SAMPLES_PER_CELL = 8;
+
+    private GrayscaleSampler() {
+    }
+
+    /**
+     * Samples the image into a width x height grid of luminance values from 0 to 255, stored row
+     * by row in the destination array.
+     * @param image Image to sample
+     * @param width Number of grid columns
+     * @param height Number of grid rows
+     * @param destination Array of at least width * height elements to fill
+     */
+    public static void sample(BufferedImage image, int width, int height, int[] destination) {
+        int imageWidth = image.getWidth();
+        int imageHeight = image.getHeight();
+        for (int row = 0; row < height; row++) {
+            int y0 = row * imageHeight / height;
+            int y1 = Math.max(y0 + 1, (row + 1) * imageHeight / height);
+            int yStep = Math.max(1, (y1 - y0) / MAX_SAMPLES_PER_CELL);
+            for (int column = 0; column < width; column++) {
+                int x0 = column * imageWidth / width;
+                int x1 = Math.max(x0 + 1, (column + 1) * imageWidth / width);
+                int xStep = Math.max(1, (x1 - x0) / MAX_SAMPLES_PER_CELL);
+                int sum = 0;
+                int count = 0;
+                for (int y = y0; y < y1; y += yStep) {
+                    for (int x = x0; x < x1; x += xStep) {
+                        sum += luminance(image.getRGB(x, y));
+                        count++;
+                    }
+                }
+                destination[row * width + column] = sum / count;
+            }
+        }
+    }
+
+    private static int luminance(int rgb) {
+        int r = (rgb >> 16) & 0xFF;
+        int g = (rgb >> 8) & 0xFF;
+        int b = rgb & 0xFF;
+        return (r * 299 + g * 587 + b * 114) / 1000;
+    }
+}
@@ -0,0 +1,185 @@
+package com.udacity.catpoint.image;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Turns a frame into a small vector of color and gradient features for {@link CatModel}. The
+ * frame is first averaged down to a fixed grid, so extraction costs about the same for any
+ * frame size.
+ *
+ * Features, in order: a 12 bin hue histogram weighted by saturation and brightness, mean
+ * saturation, mean brightness, brightness spread, share of warm fur-coloured cells, an 8 bin
+ * gradient orientation histogram, mean gradient strength, share of strong edges and the
+ * brightness contrast between the centre and the border of the frame.
+ */
+public final class ImageFeatures {
+
+    public static final int FEATURE_COUNT = 27;
+
+    private static final int GRID = 48;
+    private static final int HUE_BINS = 12;
+    private static final int ORIENTATION_BINS = 8;
+    private static final int MAX_SAMPLES_PER_CELL = 6;
+    private static final float STRONG_EDGE = 0.25f;
+
+    private ImageFeatures() {
+    }
+
+    public static float[] extract(BufferedImage image) {
+        float[] red = new float[GRID * GRID];
+        float[] green = new float[GRID * GRID];
+        float[] blue = new float[GRID * GRID];
+        sample(image, red, green, blue);
+
+        float[] features = new float[FEATURE_COUNT];
+        float[] luminance = new float[GRID * GRID];
+        float saturationSum = 0;
+        float valueSum = 0;
+        float valueSquares = 0;
+        int warm = 0;
+        for (int i = 0; i < luminance.length; i++) {
+            float r = red[i];
+            float g = green[i];
+            float b = blue[i];
+            float max = Math.max(r, Math.max(g, b));
+            float min = Math.min(r, Math.min(g, b));
+            float saturation = max == 0 ? 0 : (max - min) / max;
+            float hue = hue(r, g, b, max, min);
+            features[Math.min(HUE_BINS - 1, (int) (hue * HUE_BINS))] += saturation * max;
+            saturationSum += saturation;
+            valueSum += max;
+            valueSquares += max * max;
+            if (hue >= 0.02f && hue <= 0.12f && saturation > 0.3f && max > 0.2f) {
+                warm++;
+            }
+            luminance[i] = 0.299f * r + 0.587f * g + 0.114f * b;
+        }
+        int cells = luminance.length;
+        for (int bin = 0; bin < HUE_BINS; bin++) {
+            features[bin] /= cells;
+        }
+        float meanValue = valueSum / cells;
+        features[12] = saturationSum / cells;
+        features[13] = meanValue;
+        features[14] = (float) Math.sqrt(Math.max(0, valueSquares / cells - meanValue * meanValue));
+        features[15] = (float) warm / cells;
+
+        gradients(luminance, features, 16);
+        features[26] = centreContrast(luminance);
+        return features;
+    }
+
+    /**
+     * Averages the image into the grid, with channels scaled to 0..1.
+     */
+    private static void sample(BufferedImage image, float[] red, float[] green, float[] blue) {
+        int imageWidth = image.getWidth();
+        int imageHeight = image.getHeight();
+        for (int row = 0; row < GRID; row++) {
+            int y0 = row * imageHeight / GRID;
+            int y1 = Math.max(y0 + 1, (row + 1) * imageHeight / GRID);
+            int yStep = Math.max(1, (y1 - y0) / MAX_SAMPLES_PER_CELL);
+            for (int column = 0; column < GRID; column++) {
+                int x0 = column * imageWidth / GRID;
+                int x1 = Math.max(x0 + 1, (column + 1) * imageWidth / GRID);
+                int xStep = Math.max(1, (x1 - x0) / MAX_SAMPLES_PER_CELL);
+                int r = 0;
+                int g = 0;
+                int b = 0;
+                int count = 0;
+                for (int y = Math.min(y0, imageHeight - 1); y < Math.min(y1, imageHeight); y += yStep) {
+                    for (int x = Math.min(x0, imageWidth - 1); x < Math.min(x1, imageWidth); x += xStep) {
+                        int rgb = image.getRGB(x, y);
+                        r += (rgb >> 16) & 0xFF;
+                        g += (rgb >> 8) & 0xFF;
+                        b += rgb & 0xFF;
+                        count++;
+                    }
+                }
+                int cell = row * GRID + column;
+                float scale = 1f / (255f * count);
+                red[cell] = r * scale;
+                green[cell] = g * scale;
+                blue[cell] = b * scale;
+            }
+        }
+    }
+
+    /**
+     * @return The hue from 0 (inclusive) to 1 (exclusive).
+     */
+    private static float hue(float r, float g, float b, float max, float min) {
+        float delta = max - min;
+        if (delta == 0) {
+            return 0;
+        }
+        float hue;
+        if (max == r) {
+            hue = ((g - b) / delta) / 6f;
+        } else if (max == g) {
+            hue = ((b - r) / delta + 2) / 6f;
+        } else {
+            hue = ((r - g) / delta + 4) / 6f;
+        }
+        return hue < 0 ? hue + 1 : hue;
+    }
+
+    /**
+     * Sobel gradients over the luminance grid: an orientation histogram weighted by strength and
+     * normalized to sum to one, then the mean strength and the share of strong edges.
+     */
+    private static void gradients(float[] luminance, float[] features, int offset) {
+        float total = 0;
+        int strong = 0;
+        int counted = 0;
+        for (int y = 1; y < GRID - 1; y++) {
+            for (int x = 1; x < GRID - 1; x++) {
+                int i = y * GRID + x;
+                float gx = luminance[i - GRID + 1] + 2 * luminance[i + 1] + luminance[i + GRID + 1]
+                        - luminance[i - GRID - 1] - 2 * luminance[i - 1] - luminance[i + GRID - 1];
+                float gy = luminance[i + GRID - 1] + 2 * luminance[i + GRID] + luminance[i + GRID + 1]
+                        - luminance[i - GRID - 1] - 2 * luminance[i - GRID] - luminance[i - GRID + 1];
+                float magnitude = (float) Math.sqrt(gx * gx + gy * gy);
+                //orientation folded to 0..pi, edges have no direction
+                double angle = Math.atan2(gy, gx);
+                if (angle < 0) {
+                    angle += Math.PI;
+                }
+                int bin = Math.min(ORIENTATION_BINS - 1, (int) (angle / Math.PI * ORIENTATION_BINS));
+                features[offset + bin] += magnitude;
+                total += magnitude;
+                if (magnitude > STRONG_EDGE) {
+                    strong++;
+                }
+                counted++;
+            }
+        }
+        if (total > 0) {
+            for (int bin = 0; bin < ORIENTATION_BINS; bin++) {
+                features[offset + bin] /= total;
+            }
+        }
+        features[offset + ORIENTATION_BINS] = total / counted;
+        features[offset + ORIENTATION_BINS + 1] = (float) strong / counted;
+    }
+
+    private static float centreContrast(float[] luminance) {
+        float centre = 0;
+        float border = 0;
+        int centreCount = 0;
+        int borderCount = 0;
+        for (int y = 0; y < GRID; y++) {
+            for (int x = 0; x < GRID; x++) {
+                boolean inCentre = x >= GRID / 4 && x < GRID * 3 / 4 && y >= GRID / 4 && y < GRID * 3 / 4;
+                if (inCentre) {
+                    centre += luminance[y * GRID + x];
+                    centreCount++;
+                } else {
+                    border += luminance[y * GRID + x];
+                    borderCount++;
+                }
+            }
+        }
+        return Math.abs(centre / centreCount - border / borderCount);
+    }
+}
@@ -0,0 +1,77 @@
+package com.udacity.catpoint.image;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * Progressive bilinear downscaling. A single bilinear step only samples the four source pixels
+ * nearest each destination pixel, so shrinking by more than half skips most of the image and
+ * aliases. Halving repeatedly until within a factor of two and then finishing with one bilinear
+ * step gives results close to area averaging at a fraction of the cost of
+ * Image.getScaledInstance(SCALE_SMOOTH).
+ *
+ * Scaled images are opaque TYPE_INT_RGB, which both Swing and the JPEG encoder handle directly.
+ */
+public final class ImageScaler {
+
+    private ImageScaler() {
+    }
+
+    /**
+     * Scales the image to exactly the given size.
+     */
+    public static BufferedImage scale(BufferedImage image, int width, int height) {
+        BufferedImage halved = halveTowards(image, width, height);
+        return draw(halved, width, height);
+    }
+
+    /**
+     * Scales the image down, keeping its aspect ratio, so neither side exceeds maxDimension.
+     * Images that already fit are returned unchanged.
+     */
+    public static BufferedImage fitWithin(BufferedImage image, int maxDimension) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (Math.max(width, height) <= maxDimension) {
+            return image;
+        }
+        double scale = (double) maxDimension / Math.max(width, height);
+        return scale(image, Math.max(1, (int) Math.round(width * scale)), Math.max(1, (int) Math.round(height * scale)));
+    }
+
+    /**
+     * Halves the image until each side is at most twice the target size, leaving one final
+     * bilinear step to the caller. Returns the image itself if no halving is needed.
+     */
+    public static BufferedImage halveTowards(BufferedImage image, int width, int height) {
+        BufferedImage current = image;
+        int w = image.getWidth();
+        int h = image.getHeight();
+        while (w > width * 2 || h > height * 2) {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+            current = draw(current, w, h);
+        }
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage image, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        drawInto(image, scaled);
+        return scaled;
+    }
+
+    /**
+     * Draws the image stretched over the whole destination in one bilinear step.
+     */
+    static void drawInto(BufferedImage image, BufferedImage destination) {
+        Graphics2D g = destination.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, destination.getWidth(), destination.getHeight(), null);
+        } finally {
+            g.dispose();
+        }
+    }
+}
@@ -1,8 +1,25 @@
 package com.udacity.catpoint.image;
 
 import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 public interface ImageService {
 
     public boolean imageContainsCat(BufferedImage image, float confidenceThreshhold);
+
+    /**
+     * Non-blocking variant of {@link #imageContainsCat(BufferedImage, float)}. By default the
+     * blocking call runs on the bounded {@link ImageServiceExecutor#shared()} pool.
+     * @return A future completing with true if the image contains a cat. Fails with a
+     * RejectedExecutionException if the pool is saturated.
+     */
+    default CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage image, float confidenceThreshhold) {
+        try {
+            return CompletableFuture.supplyAsync(() -> imageContainsCat(image, confidenceThreshhold),
+                    ImageServiceExecutor.shared());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
@@ -0,0 +1,54 @@
+package com.udacity.catpoint.image;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool that runs blocking image classification calls for the asynchronous ImageService
+ * methods. Threads are daemons so an outstanding remote call never keeps the application alive.
+ * Once every thread is busy and the queue is full, new work is rejected rather than piling up.
+ *
+ * The pool size and queue length can be set with the catpoint.image.threads and
+ * catpoint.image.queue system properties.
+ */
+public final class ImageServiceExecutor {
+
+    private static final int THREADS = Integer.getInteger("catpoint.image.threads", 16);
+    private static final int QUEUE = Integer.getInteger("catpoint.image.queue", 256);
+
+    private ImageServiceExecutor() {
+    }
+
+    private static class Holder {
+        private static final ExecutorService SHARED = create(THREADS, QUEUE);
+    }
+
+    /**
+     * @return The pool shared by all ImageService implementations in this module.
+     */
+    public static ExecutorService shared() {
+        return Holder.SHARED;
+    }
+
+    /**
+     * Creates a new bounded pool of daemon threads.
+     * @param threads Maximum number of concurrent classification calls
+     * @param queue Maximum number of calls waiting for a thread
+     */
+    public static ExecutorService create(int threads, int queue) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread thread = new Thread(r, "image-service-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queue), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
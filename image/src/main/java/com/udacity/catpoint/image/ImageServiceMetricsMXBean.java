@@ -0,0 +1,10 @@
+package com.udacity.catpoint.image;
+
+/**
+ * Management view of the verdicts counted by {@link InstrumentedImageService}.
+ */
+public interface ImageServiceMetricsMXBean {
+    long getCatCount();
+    long getNoCatCount();
+    long getFailureCount();
+}
@@ -0,0 +1,101 @@
+package com.udacity.catpoint.image;
+
+import com.udacity.catpoint.core.LatencyHistogram;
+import com.udacity.catpoint.core.Metrics;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ImageService decorator that times every call and counts the verdicts, publishing both through
+ * JMX as com.udacity.catpoint:type=ImageService. Asynchronous calls are timed until their future
+ * completes, so the histogram includes time spent queued for the backend.
+ */
+public class InstrumentedImageService implements ImageService, ImageServiceMetricsMXBean {
+
+    private final ImageService delegate;
+    private final LatencyHistogram blockingCalls;
+    private final LatencyHistogram asyncCalls;
+
+    private final LongAdder cats = new LongAdder();
+    private final LongAdder noCats = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public InstrumentedImageService(ImageService delegate) {
+        this.delegate = delegate;
+        this.blockingCalls = Metrics.latency("ImageService", "imageContainsCat");
+        this.asyncCalls = Metrics.latency("ImageService", "imageContainsCatAsync");
+        Metrics.register(this, "type=ImageService");
+    }
+
+    @Override
+    public boolean imageContainsCat(BufferedImage image, float confidenceThreshhold) {
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            boolean cat = delegate.imageContainsCat(image, confidenceThreshhold);
+            completed = true;
+            countVerdict(cat);
+            return cat;
+        } finally {
+            blockingCalls.recordSince(start);
+            if (!completed) {
+                failures.increment();
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage image, float confidenceThreshhold) {
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> verdict;
+        try {
+            verdict = delegate.imageContainsCatAsync(image, confidenceThreshhold);
+        } catch (RuntimeException e) {
+            asyncCalls.recordSince(start);
+            failures.increment();
+            throw e;
+        }
+        verdict.whenComplete((cat, e) -> {
+            asyncCalls.recordSince(start);
+            if (e != null) {
+                failures.increment();
+            } else {
+                countVerdict(cat);
+            }
+        });
+        return verdict;
+    }
+
+    private void countVerdict(boolean cat) {
+        if (cat) {
+            cats.increment();
+        } else {
+            noCats.increment();
+        }
+    }
+
+    public LatencyHistogram getBlockingLatency() {
+        return blockingCalls;
+    }
+
+    public LatencyHistogram getAsyncLatency() {
+        return asyncCalls;
+    }
+
+    @Override
+    public long getCatCount() {
+        return cats.sum();
+    }
+
+    @Override
+    public long getNoCatCount() {
+        return noCats.sum();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return failures.sum();
+    }
+}
@@ -0,0 +1,210 @@
+package com.udacity.catpoint.image;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStreamImpl;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reusable JPEG encoder. Keeps one ImageWriter, the scratch images for downscaling and one growable
+ * output buffer, so encoding frame after frame allocates very little. Frames larger than the
+ * configured maximum dimension are scaled down before encoding, halving progressively like
+ * {@link ImageScaler} but into images kept for the next frame of the same size.
+ *
+ * Instances are not thread safe; keep one per thread.
+ */
+public class JpegEncoder {
+
+    /**
+     * ImageOutputStream writing straight into a growable array, so the writer's output lands in
+     * the buffer handed out by {@link #buffer()} without an intermediate cache or copy. Cleared
+     * and reused for every frame.
+     */
+    private static class ReusableOutputStream extends ImageOutputStreamImpl {
+        private byte[] buf;
+        private int count;
+
+        ReusableOutputStream(int size) {
+            buf = new byte[size];
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        int size() {
+            return count;
+        }
+
+        void clear() {
+            count = 0;
+            streamPos = 0;
+            flushedPos = 0;
+            bitOffset = 0;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            flushBits();
+            ensureCapacity(streamPos + 1);
+            buf[(int) streamPos++] = (byte) b;
+            count = Math.max(count, (int) streamPos);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            flushBits();
+            ensureCapacity(streamPos + len);
+            System.arraycopy(b, off, buf, (int) streamPos, len);
+            streamPos += len;
+            count = Math.max(count, (int) streamPos);
+        }
+
+        @Override
+        public int read() throws IOException {
+            bitOffset = 0;
+            return streamPos < count ? buf[(int) streamPos++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            bitOffset = 0;
+            int n = (int) Math.min(len, count - streamPos);
+            if (n <= 0) {
+                return len == 0 ? 0 : -1;
+            }
+            System.arraycopy(buf, (int) streamPos, b, off, n);
+            streamPos += n;
+            return n;
+        }
+
+        @Override
+        public long length() {
+            return count;
+        }
+
+        private void ensureCapacity(long needed) throws IOException {
+            if (needed > Integer.MAX_VALUE - 8) {
+                throw new IOException("Encoded image too large");
+            }
+            if (needed > buf.length) {
+                buf = Arrays.copyOf(buf, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(needed, buf.length * 2L)));
+            }
+        }
+    }
+
+    private final int maxDimension;
+    private final ImageWriter writer;
+    private final ImageWriteParam param;
+    private final ReusableOutputStream output = new ReusableOutputStream(64 * 1024);
+    private BufferedImage scratch;
+    private BufferedImage[] halves = new BufferedImage[0];
+    private int sourceWidth;
+    private int sourceHeight;
+
+    /**
+     * @param maxDimension Largest width or height to encode; bigger frames are scaled to fit
+     * @param quality JPEG quality from 0 to 1
+     */
+    public JpegEncoder(int maxDimension, float quality) {
+        this.maxDimension = maxDimension;
+        this.writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        this.param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+    }
+
+    /**
+     * Encodes the image. The result stays in this encoder's buffer until the next call.
+     * @return The number of bytes written to {@link #buffer()}
+     */
+    public int encode(BufferedImage image) throws IOException {
+        BufferedImage source = prepare(image);
+        output.clear();
+        try {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(source, null, null), param);
+        } finally {
+            writer.setOutput(null);
+        }
+        return output.size();
+    }
+
+    /**
+     * @return The encoder's internal buffer. Only the first {@link #size()} bytes are valid.
+     */
+    public byte[] buffer() {
+        return output.array();
+    }
+
+    /**
+     * @return The length of the last encoded image.
+     */
+    public int size() {
+        return output.size();
+    }
+
+    /**
+     * @return An exactly sized copy of the last encoded image, for callers that keep the bytes
+     * beyond the next call. This is the only copy made of the encoded data.
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(output.array(), output.size());
+    }
+
+    /**
+     * Returns an opaque RGB image no larger than maxDimension. Images that already qualify are
+     * used as they are, anything else is halved and finished in scratch images reused between
+     * calls.
+     */
+    private BufferedImage prepare(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        boolean opaqueRgb = image.getType() == BufferedImage.TYPE_INT_RGB
+                || image.getType() == BufferedImage.TYPE_3BYTE_BGR;
+        if (opaqueRgb && targetWidth == width && targetHeight == height) {
+            return image;
+        }
+        if (scratch == null || scratch.getWidth() != targetWidth || scratch.getHeight() != targetHeight) {
+            scratch = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        }
+        ImageScaler.drawInto(halveTowards(image, targetWidth, targetHeight), scratch);
+        return scratch;
+    }
+
+    /**
+     * Same steps as {@link ImageScaler#halveTowards}, drawn into this encoder's halving images.
+     * The images depend only on the source size, so they are rebuilt when that changes.
+     */
+    private BufferedImage halveTowards(BufferedImage image, int targetWidth, int targetHeight) {
+        if (image.getWidth() != sourceWidth || image.getHeight() != sourceHeight) {
+            List<BufferedImage> steps = new ArrayList<>();
+            int w = image.getWidth();
+            int h = image.getHeight();
+            while (w > targetWidth * 2 || h > targetHeight * 2) {
+                w = Math.max(targetWidth, w / 2);
+                h = Math.max(targetHeight, h / 2);
+                steps.add(new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB));
+            }
+            halves = steps.toArray(new BufferedImage[0]);
+            sourceWidth = image.getWidth();
+            sourceHeight = image.getHeight();
+        }
+        BufferedImage current = image;
+        for (BufferedImage half : halves) {
+            ImageScaler.drawInto(current, half);
+            current = half;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,34 @@
+package com.udacity.catpoint.image;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ImageService that builds its backend on the first scan. Remote clients and bundled models are
+ * expensive to set up and are not needed to show the GUI, so startup does not wait for them.
+ * The backend is built once, by whichever thread asks first.
+ */
+public class LazyImageService implements ImageService {
+
+    private final Supplier<ImageService> delegate;
+
+    /**
+     * @param factory Builds the backend, called at most once
+     */
+    public LazyImageService(java.util.function.Supplier<? extends ImageService> factory) {
+        this.delegate = Suppliers.memoize(factory::get);
+    }
+
+    @Override
+    public boolean imageContainsCat(BufferedImage image, float confidenceThreshhold) {
+        return delegate.get().imageContainsCat(image, confidenceThreshhold);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage image, float confidenceThreshhold) {
+        return delegate.get().imageContainsCatAsync(image, confidenceThreshhold);
+    }
+}
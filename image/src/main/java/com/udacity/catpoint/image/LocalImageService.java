@@ -0,0 +1,92 @@
+package com.udacity.catpoint.image;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * ImageService that classifies frames in process with a {@link CatModel} over
+ * {@link ImageFeatures}: no network and a few milliseconds per frame.
+ *
+ * The bundled model was trained on synthetic frames (drawn cats and cat-free rooms, see the
+ * benchmarks module) and has not been validated on real camera footage. For real use, train a
+ * model on labelled frames from the actual cameras with {@link CatModel#train} and load it with
+ * {@link #fromFile(Path)}.
+ */
+public class LocalImageService implements ImageService, BatchImageClassifier {
+
+    private static final String BUNDLED_MODEL = "cat-model.properties";
+
+    private final CatModel model;
+
+    /**
+     * Uses the bundled model.
+     */
+    public LocalImageService() {
+        try (InputStream is = LocalImageService.class.getResourceAsStream(BUNDLED_MODEL)) {
+            if (is == null) {
+                throw new IllegalStateException("Bundled cat model " + BUNDLED_MODEL + " is missing");
+            }
+            this.model = CatModel.load(is);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Unable to read bundled cat model", ioe);
+        }
+    }
+
+    public LocalImageService(CatModel model) {
+        this.model = model;
+    }
+
+    /**
+     * Loads the model from a properties file written by {@link CatModel#store}.
+     */
+    public static LocalImageService fromFile(Path modelFile) {
+        try (InputStream is = Files.newInputStream(modelFile)) {
+            return new LocalImageService(CatModel.load(is));
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Unable to read cat model " + modelFile, ioe);
+        }
+    }
+
+    /**
+     * @return The cat confidence from 0 to 100.
+     */
+    public float catConfidence(BufferedImage image) {
+        return model.confidence(ImageFeatures.extract(image));
+    }
+
+    @Override
+    public boolean imageContainsCat(BufferedImage image, float confidenceThreshhold) {
+        return catConfidence(image) >= confidenceThreshhold;
+    }
+
+    /**
+     * Classifies a batch of frames in parallel on the common fork/join pool.
+     * @return The cat confidence of each frame, in the order given
+     */
+    public float[] catConfidence(List<BufferedImage> images) {
+        float[] confidences = new float[images.size()];
+        IntStream.range(0, images.size()).parallel()
+                .forEach(i -> confidences[i] = catConfidence(images.get(i)));
+        return confidences;
+    }
+
+    /**
+     * Batch version of {@link #imageContainsCat}.
+     * @return Whether each frame contains a cat, in the order given
+     */
+    @Override
+    public boolean[] imagesContainCat(List<BufferedImage> images, float confidenceThreshhold) {
+        float[] confidences = catConfidence(images);
+        boolean[] cats = new boolean[confidences.length];
+        for (int i = 0; i < cats.length; i++) {
+            cats[i] = confidences[i] >= confidenceThreshhold;
+        }
+        return cats;
+    }
+}
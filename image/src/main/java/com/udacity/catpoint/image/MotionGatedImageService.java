@@ -0,0 +1,171 @@
+package com.udacity.catpoint.image;
+
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ImageService decorator for static cameras. Each frame is reduced to a small grayscale grid
+ * and compared with the last frame from the same camera that was actually classified. Only when
+ * the mean change crosses the threshold is the frame passed on to the wrapped service; otherwise
+ * that camera's previous verdict is returned straight away. Frames given without a camera id all
+ * count as coming from one default camera.
+ *
+ * Comparing against the last classified frame rather than the previous frame means slow changes
+ * (someone creeping across the room) still add up and trigger classification eventually.
+ */
+public class MotionGatedImageService implements ImageService {
+
+    private static final int GRID_WIDTH = 32;
+    private static final int GRID_HEIGHT = 24;
+    private static final String DEFAULT_CAMERA = "default";
+
+    private final ImageService delegate;
+    private final double threshold;
+    private final Map<String, Reference> references = new ConcurrentHashMap<>();
+    private volatile double lastScore;
+
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    /**
+     * The last classified frame of one camera and the verdict it got.
+     */
+    private static class Reference {
+        int[] grid;
+        boolean verdict;
+        float confidenceThreshhold;
+    }
+
+    /**
+     * @param delegate The service that classifies frames with enough change
+     * @param threshold Mean absolute luminance change, from 0 to 1, needed to classify a frame
+     */
+    public MotionGatedImageService(ImageService delegate, double threshold) {
+        this.delegate = delegate;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public boolean imageContainsCat(BufferedImage image, float confidenceThreshhold) {
+        return imageContainsCat(DEFAULT_CAMERA, image, confidenceThreshhold);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> imageContainsCatAsync(BufferedImage image, float confidenceThreshhold) {
+        return imageContainsCatAsync(DEFAULT_CAMERA, image, confidenceThreshhold);
+    }
+
+    /**
+     * Classifies the frame if it changed enough since the last classified frame of the camera.
+     * @param cameraId The camera the frame came from
+     */
+    public boolean imageContainsCat(String cameraId, BufferedImage image, float confidenceThreshhold) {
+        Reference reference = reference(cameraId);
+        int[] grid = sample(image);
+        Boolean reused = reuseVerdict(reference, grid, confidenceThreshhold);
+        if (reused != null) {
+            return reused;
+        }
+        boolean cat = delegate.imageContainsCat(image, confidenceThreshhold);
+        remember(reference, grid, cat, confidenceThreshhold);
+        return cat;
+    }
+
+    /**
+     * Non-blocking variant of {@link #imageContainsCat(String, BufferedImage, float)}.
+     * @param cameraId The camera the frame came from
+     */
+    public CompletableFuture<Boolean> imageContainsCatAsync(String cameraId, BufferedImage image, float confidenceThreshhold) {
+        Reference reference = reference(cameraId);
+        int[] grid = sample(image);
+        Boolean reused = reuseVerdict(reference, grid, confidenceThreshhold);
+        if (reused != null) {
+            return CompletableFuture.completedFuture(reused);
+        }
+        return delegate.imageContainsCatAsync(image, confidenceThreshhold)
+                .thenApply(cat -> {
+                    remember(reference, grid, cat, confidenceThreshhold);
+                    return cat;
+                });
+    }
+
+    private Reference reference(String cameraId) {
+        return references.computeIfAbsent(cameraId, id -> new Reference());
+    }
+
+    private static int[] sample(BufferedImage image) {
+        int[] grid = new int[GRID_WIDTH * GRID_HEIGHT];
+        GrayscaleSampler.sample(image, GRID_WIDTH, GRID_HEIGHT, grid);
+        return grid;
+    }
+
+    /**
+     * @return The camera's previous verdict if the frame has not changed enough, or null if it must be classified.
+     */
+    private Boolean reuseVerdict(Reference reference, int[] grid, float confidenceThreshhold) {
+        synchronized (reference) {
+            if (reference.grid == null || confidenceThreshhold != reference.confidenceThreshhold) {
+                forwarded.increment();
+                return null;
+            }
+            double score = changeScore(reference.grid, grid);
+            lastScore = score;
+            if (score >= threshold) {
+                forwarded.increment();
+                return null;
+            }
+            skipped.increment();
+            return reference.verdict;
+        }
+    }
+
+    private static void remember(Reference reference, int[] grid, boolean cat, float confidenceThreshhold) {
+        synchronized (reference) {
+            reference.grid = grid;
+            reference.verdict = cat;
+            reference.confidenceThreshhold = confidenceThreshhold;
+        }
+    }
+
+    /**
+     * Drops the camera's reference frame, for example when its feed is disconnected.
+     */
+    public void forgetCamera(String cameraId) {
+        references.remove(cameraId);
+    }
+
+    /**
+     * @return The mean absolute difference between two luminance grids, scaled to 0..1.
+     */
+    static double changeScore(int[] previous, int[] current) {
+        long total = 0;
+        for (int i = 0; i < current.length; i++) {
+            total += Math.abs(current[i] - previous[i]);
+        }
+        return total / (255.0 * current.length);
+    }
+
+    /**
+     * @return The change score of the most recently compared frame, from any camera.
+     */
+    public double getLastScore() {
+        return lastScore;
+    }
+
+    /**
+     * @return The number of frames passed on to the wrapped service.
+     */
+    public long getForwardedCount() {
+        return forwarded.sum();
+    }
+
+    /**
+     * @return The number of frames answered with the previous verdict.
+     */
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+}
@@ -0,0 +1,42 @@
+package com.udacity.catpoint.image;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Difference hash (dHash) of an image: the image is shrunk to a 9x8 grayscale grid and each bit
+ * records whether a cell is brighter than its right-hand neighbour. Visually similar frames
+ * produce hashes that differ in only a few bits.
+ */
+public final class PerceptualHash {
+
+    private static final int WIDTH = 9;
+    private static final int HEIGHT = 8;
+
+    private PerceptualHash() {
+    }
+
+    /**
+     * @return The 64 bit difference hash of the image.
+     */
+    public static long dHash(BufferedImage image) {
+        int[] grid = new int[WIDTH * HEIGHT];
+        GrayscaleSampler.sample(image, WIDTH, HEIGHT, grid);
+        long hash = 0;
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int column = 0; column < WIDTH - 1; column++) {
+                hash <<= 1;
+                if (grid[row * WIDTH + column] > grid[row * WIDTH + column + 1]) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * @return The number of bits that differ between two hashes.
+     */
+    public static int distance(long hash1, long hash2) {
+        return Long.bitCount(hash1 ^ hash2);
+    }
+}
@@ -0,0 +1,84 @@
+package com.udacity.catpoint.image;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * FrameSource that plays back a recorded sequence of image files at a fixed frame rate, for
+ * testing and load runs. Frames are decoded as they are played, and the schedule does not slip
+ * when a consumer is slow, so downstream backpressure behaves as it would with a live camera.
+ */
+public class ReplayFrameSource implements FrameSource {
+
+    private final List<Path> frames;
+    private final long frameIntervalNanos;
+    private final boolean loop;
+
+    private int index;
+    private long played;
+    private long startNanos;
+    private volatile boolean closed;
+
+    /**
+     * @param frames The image files to play, in order
+     * @param framesPerSecond Playback rate
+     * @param loop Whether to start over after the last frame instead of ending
+     */
+    public ReplayFrameSource(List<Path> frames, double framesPerSecond, boolean loop) {
+        if (framesPerSecond <= 0) {
+            throw new IllegalArgumentException("framesPerSecond must be positive");
+        }
+        this.frames = List.copyOf(frames);
+        this.frameIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / framesPerSecond);
+        this.loop = loop;
+    }
+
+    /**
+     * Plays every image file in the directory in file name order.
+     */
+    public static ReplayFrameSource fromDirectory(Path directory, double framesPerSecond, boolean loop) {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> frames = files.filter(DirectoryFrameSource::isImageFile).sorted().collect(Collectors.toList());
+            return new ReplayFrameSource(frames, framesPerSecond, loop);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Unable to list frames in " + directory, ioe);
+        }
+    }
+
+    @Override
+    public BufferedImage nextFrame() throws InterruptedException {
+        while (!closed) {
+            if (index == frames.size()) {
+                if (!loop || frames.isEmpty()) {
+                    return null;
+                }
+                index = 0;
+            }
+            if (played == 0) {
+                startNanos = System.nanoTime();
+            }
+            long wait = startNanos + played * frameIntervalNanos - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            played++;
+            BufferedImage frame = DirectoryFrameSource.read(frames.get(index++));
+            if (frame != null) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
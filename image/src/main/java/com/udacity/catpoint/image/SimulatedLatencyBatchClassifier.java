@@ -0,0 +1,61 @@
+package com.udacity.catpoint.image;
+
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stand-in for a remote batch classifier. Each call sleeps for a fixed request overhead plus a
+ * per-frame cost, then answers with the verdicts of a local ImageService. Like a rate limited
+ * remote API, only a fixed number of calls are served at once and the rest wait their turn. Use
+ * it to test and benchmark batching without network access.
+ */
+public class SimulatedLatencyBatchClassifier implements BatchImageClassifier {
+
+    private final ImageService verdicts;
+    private final long requestNanos;
+    private final long perImageNanos;
+    private final Semaphore concurrentCalls;
+    private final LongAdder calls = new LongAdder();
+
+    /**
+     * @param verdicts Decides the answer for each frame
+     * @param requestLatency Fixed cost of every call, like a network round trip
+     * @param perImageLatency Extra cost for each frame in the call
+     * @param maxConcurrentCalls Calls served at the same time
+     */
+    public SimulatedLatencyBatchClassifier(ImageService verdicts, Duration requestLatency, Duration perImageLatency,
+                                           int maxConcurrentCalls) {
+        this.verdicts = verdicts;
+        this.concurrentCalls = new Semaphore(maxConcurrentCalls, true);
+        this.requestNanos = requestLatency.toNanos();
+        this.perImageNanos = perImageLatency.toNanos();
+    }
+
+    @Override
+    public boolean[] imagesContainCat(List<BufferedImage> images, float confidenceThreshhold) {
+        calls.increment();
+        try {
+            concurrentCalls.acquire();
+            try {
+                TimeUnit.NANOSECONDS.sleep(requestNanos + perImageNanos * images.size());
+            } finally {
+                concurrentCalls.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while classifying", e);
+        }
+        return BatchImageClassifier.of(verdicts).imagesContainCat(images, confidenceThreshhold);
+    }
+
+    /**
+     * @return The number of calls made to this backend.
+     */
+    public long getCallCount() {
+        return calls.sum();
+    }
+}
@@ -3,6 +3,8 @@ module com.udacity.catpoint.image {
     requires software.amazon.awssdk.services.rekognition;
     requires software.amazon.awssdk.auth;
     requires java.desktop;
+    requires com.google.common;
+    requires com.udacity.catpoint.core;
     requires software.amazon.awssdk.core;
     requires software.amazon.awssdk.regions;
     exports com.udacity.catpoint.image;
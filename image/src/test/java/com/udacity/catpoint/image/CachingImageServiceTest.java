@@ -0,0 +1,144 @@
+package com.udacity.catpoint.image;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingImageServiceTest {
+
+    /**
+     * Answers with a fixed verdict and counts how many frames it was asked about.
+     */
+    private static class CountingImageService implements ImageService {
+        int calls;
+        boolean verdict = true;
+
+        @Override
+        public boolean imageContainsCat(BufferedImage image, float confidenceThreshhold) {
+            calls++;
+            return verdict;
+        }
+    }
+
+    private final CountingImageService delegate = new CountingImageService();
+    private final AtomicLong now = new AtomicLong();
+
+    private CachingImageService cache(int maxEntries, int maxDistance) {
+        return new CachingImageService(delegate, maxEntries, Duration.ofSeconds(10), maxDistance, now::get);
+    }
+
+    /**
+     * Builds a 9x8 image, one pixel per dHash cell, whose hash is exactly the given bits.
+     */
+    private static BufferedImage withHash(long hash) {
+        BufferedImage image = new BufferedImage(9, 8, BufferedImage.TYPE_INT_RGB);
+        for (int row = 0; row < 8; row++) {
+            int level = 128;
+            image.setRGB(0, row, level * 0x010101);
+            for (int column = 0; column < 8; column++) {
+                boolean brighterThanRight = (hash >>> (63 - (row * 8 + column)) & 1) != 0;
+                level += brighterThanRight ? -10 : 10;
+                image.setRGB(column + 1, row, level * 0x010101);
+            }
+        }
+        return image;
+    }
+
+    @Test
+    void withHash_buildsImagesWithTheRequestedHash() {
+        long hash = 0x0123_4567_89AB_CDEFL;
+        assertEquals(hash, PerceptualHash.dHash(withHash(hash)));
+    }
+
+    @Test
+    void sameFrame_isAnsweredFromCache() {
+        CachingImageService cache = cache(16, 0);
+        assertTrue(cache.imageContainsCat(withHash(42), 50f));
+        delegate.verdict = false;
+        assertTrue(cache.imageContainsCat(withHash(42), 50f));
+        assertEquals(1, delegate.calls);
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    void nearFrame_withinMaxDistance_isAHit() {
+        CachingImageService cache = cache(16, 4);
+        long hash = 0xF0F0_F0F0_0F0F_0F0FL;
+        cache.imageContainsCat(withHash(hash), 50f);
+        cache.imageContainsCat(withHash(hash ^ 0x8000_0001_0001_0001L), 50f);
+        assertEquals(1, delegate.calls);
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void nearFrame_beyondMaxDistance_isAMiss() {
+        CachingImageService cache = cache(16, 4);
+        long hash = 0xF0F0_F0F0_0F0F_0F0FL;
+        cache.imageContainsCat(withHash(hash), 50f);
+        cache.imageContainsCat(withHash(hash ^ 0x8000_8001_0001_0001L), 50f);
+        assertEquals(2, delegate.calls);
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    void differentConfidenceThreshold_isAMiss() {
+        CachingImageService cache = cache(16, 4);
+        cache.imageContainsCat(withHash(42), 50f);
+        cache.imageContainsCat(withHash(42), 80f);
+        assertEquals(2, delegate.calls);
+    }
+
+    @Test
+    void expiredAnswer_isClassifiedAgain() {
+        CachingImageService cache = cache(16, 0);
+        cache.imageContainsCat(withHash(42), 50f);
+        now.addAndGet(Duration.ofSeconds(9).toNanos());
+        cache.imageContainsCat(withHash(42), 50f);
+        assertEquals(1, delegate.calls);
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        cache.imageContainsCat(withHash(42), 50f);
+        assertEquals(2, delegate.calls);
+    }
+
+    @Test
+    void expiredAnswer_isNoLongerANearMatch() {
+        CachingImageService cache = cache(16, 4);
+        cache.imageContainsCat(withHash(42), 50f);
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        cache.imageContainsCat(withHash(43), 50f);
+        assertEquals(2, delegate.calls);
+    }
+
+    @Test
+    void fullCache_evictsLeastRecentlyUsed() {
+        CachingImageService cache = cache(2, 0);
+        cache.imageContainsCat(withHash(1), 50f);
+        cache.imageContainsCat(withHash(2), 50f);
+        cache.imageContainsCat(withHash(1), 50f); //1 is now more recent than 2
+        cache.imageContainsCat(withHash(3), 50f); //evicts 2
+        assertEquals(3, delegate.calls);
+        cache.imageContainsCat(withHash(1), 50f);
+        assertEquals(3, delegate.calls);
+        cache.imageContainsCat(withHash(2), 50f);
+        assertEquals(4, delegate.calls);
+    }
+
+    @Test
+    void evictedFrame_isNoLongerANearMatch() {
+        CachingImageService cache = cache(1, 4);
+        cache.imageContainsCat(withHash(0xFFL), 50f);
+        cache.imageContainsCat(withHash(0xFF00_0000_0000_0000L), 50f);
+        cache.imageContainsCat(withHash(0xFEL), 50f);
+        assertEquals(3, delegate.calls);
+    }
+
+    @Test
+    void maxDistanceOutOfRange_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> cache(16, 16));
+        assertThrows(IllegalArgumentException.class, () -> cache(16, -1));
+    }
+}
@@ -0,0 +1,54 @@
+package com.udacity.catpoint.image;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JpegEncoderTest {
+
+    private static BufferedImage filled(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.ORANGE);
+        g.fillRect(0, 0, width / 2, height);
+        g.dispose();
+        return image;
+    }
+
+    private static BufferedImage decode(JpegEncoder encoder) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(encoder.buffer(), 0, encoder.size()));
+    }
+
+    @Test
+    void largeFrame_isScaledToFitMaxDimension() throws IOException {
+        JpegEncoder encoder = new JpegEncoder(640, 0.8f);
+        encoder.encode(filled(4000, 3000, BufferedImage.TYPE_INT_ARGB));
+        BufferedImage decoded = decode(encoder);
+        assertEquals(640, decoded.getWidth());
+        assertEquals(480, decoded.getHeight());
+    }
+
+    @Test
+    void repeatedFrames_encodeIdenticallyIntoTheSameBuffer() throws IOException {
+        JpegEncoder encoder = new JpegEncoder(640, 0.8f);
+        BufferedImage frame = filled(2000, 1500, BufferedImage.TYPE_INT_RGB);
+        int first = encoder.encode(frame);
+        byte[] firstBytes = encoder.toByteArray();
+        byte[] buffer = encoder.buffer();
+
+        //a smaller frame in between must not leave stale bytes behind
+        encoder.encode(filled(100, 80, BufferedImage.TYPE_INT_RGB));
+        assertEquals(100, decode(encoder).getWidth());
+
+        assertEquals(first, encoder.encode(frame));
+        assertSame(buffer, encoder.buffer());
+        assertArrayEquals(firstBytes, encoder.toByteArray());
+    }
+}
@@ -0,0 +1,109 @@
+package com.udacity.catpoint.image;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MotionGatedImageServiceTest {
+
+    /**
+     * Answers with a fixed verdict and counts how many frames it was asked about.
+     */
+    private static class CountingImageService implements ImageService {
+        int calls;
+        boolean verdict = true;
+
+        @Override
+        public boolean imageContainsCat(BufferedImage image, float confidenceThreshhold) {
+            calls++;
+            return verdict;
+        }
+    }
+
+    private final CountingImageService delegate = new CountingImageService();
+    private final MotionGatedImageService gate = new MotionGatedImageService(delegate, 0.02);
+
+    private static BufferedImage gray(int level) {
+        BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(new Color(level, level, level));
+        g.fillRect(0, 0, 64, 48);
+        g.dispose();
+        return image;
+    }
+
+    @Test
+    void changeScore_isMeanLuminanceDifferenceScaledToOne() {
+        int[] black = new int[4];
+        int[] white = {255, 255, 255, 255};
+        assertEquals(0.0, MotionGatedImageService.changeScore(black, black));
+        assertEquals(1.0, MotionGatedImageService.changeScore(black, white));
+        assertEquals(0.5, MotionGatedImageService.changeScore(black, new int[]{255, 255, 0, 0}));
+    }
+
+    @Test
+    void unchangedFrame_reusesPreviousVerdictWithoutClassifying() {
+        assertTrue(gate.imageContainsCat(gray(100), 50f));
+        delegate.verdict = false;
+        assertTrue(gate.imageContainsCat(gray(100), 50f));
+        assertEquals(1, delegate.calls);
+        assertEquals(1, gate.getForwardedCount());
+        assertEquals(1, gate.getSkippedCount());
+    }
+
+    @Test
+    void changeAboveThreshold_isForwarded() {
+        gate.imageContainsCat(gray(0), 50f);
+        delegate.verdict = false;
+        assertFalse(gate.imageContainsCat(gray(255), 50f));
+        assertEquals(2, delegate.calls);
+        assertEquals(1.0, gate.getLastScore());
+    }
+
+    @Test
+    void slowChanges_addUpAgainstLastClassifiedFrame() {
+        //0.02 of the luminance range is 5.1 levels
+        gate.imageContainsCat(gray(100), 50f);
+        gate.imageContainsCat(gray(102), 50f);
+        gate.imageContainsCat(gray(104), 50f);
+        assertEquals(1, delegate.calls);
+        gate.imageContainsCat(gray(106), 50f);
+        assertEquals(2, delegate.calls);
+    }
+
+    @Test
+    void newConfidenceThreshold_isForwarded() {
+        gate.imageContainsCat(gray(100), 50f);
+        gate.imageContainsCat(gray(100), 80f);
+        assertEquals(2, delegate.calls);
+    }
+
+    @Test
+    void cameras_keepSeparateReferenceFrames() {
+        gate.imageContainsCat("front", gray(0), 50f);
+        gate.imageContainsCat("back", gray(255), 50f);
+        assertEquals(2, delegate.calls);
+
+        //each camera compares with its own last frame, not with the other camera's
+        gate.imageContainsCat("front", gray(0), 50f);
+        gate.imageContainsCat("back", gray(255), 50f);
+        assertEquals(2, delegate.calls);
+        assertEquals(2, gate.getSkippedCount());
+
+        gate.forgetCamera("front");
+        gate.imageContainsCat("front", gray(0), 50f);
+        assertEquals(3, delegate.calls);
+    }
+
+    @Test
+    void asyncUnchangedFrame_completesImmediatelyWithPreviousVerdict() {
+        assertTrue(gate.imageContainsCatAsync("front", gray(100), 50f).join());
+        delegate.verdict = false;
+        assertTrue(gate.imageContainsCatAsync("front", gray(101), 50f).getNow(false));
+        assertEquals(1, delegate.calls);
+    }
+}
@@ -0,0 +1,62 @@
+package com.udacity.catpoint.image;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerceptualHashTest {
+
+    private static BufferedImage scene(int width, int height, boolean leftToRight) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(leftToRight
+                ? new GradientPaint(0, 0, Color.BLACK, width, 0, Color.WHITE)
+                : new GradientPaint(0, 0, Color.WHITE, width, 0, Color.BLACK));
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.GRAY);
+        g.fillOval(width / 4, height / 4, width / 2, height / 2);
+        g.dispose();
+        return image;
+    }
+
+    private static BufferedImage scaled(BufferedImage image, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.drawImage(image.getScaledInstance(width, height, Image.SCALE_SMOOTH), 0, 0, null);
+        g.dispose();
+        return scaled;
+    }
+
+    @Test
+    void sameImage_alwaysHashesTheSame() {
+        BufferedImage image = scene(640, 480, true);
+        assertEquals(PerceptualHash.dHash(image), PerceptualHash.dHash(image));
+        assertEquals(PerceptualHash.dHash(image), PerceptualHash.dHash(scene(640, 480, true)));
+    }
+
+    @Test
+    void resizedImage_staysWithinAFewBits() {
+        BufferedImage image = scene(640, 480, true);
+        long hash = PerceptualHash.dHash(image);
+        assertTrue(PerceptualHash.distance(hash, PerceptualHash.dHash(scaled(image, 320, 240))) <= 4);
+    }
+
+    @Test
+    void differentImages_areFarApart() {
+        long hash = PerceptualHash.dHash(scene(640, 480, true));
+        assertTrue(PerceptualHash.distance(hash, PerceptualHash.dHash(scene(640, 480, false))) > 16);
+    }
+
+    @Test
+    void distance_countsDifferingBits() {
+        assertEquals(0, PerceptualHash.distance(0x5L, 0x5L));
+        assertEquals(2, PerceptualHash.distance(0b1010L, 0b0110L));
+        assertEquals(64, PerceptualHash.distance(0L, -1L));
+    }
+}
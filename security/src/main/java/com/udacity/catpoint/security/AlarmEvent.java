@@ -0,0 +1,129 @@
+package com.udacity.catpoint.security;
+
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.ArmingStatus;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * One alarm or arming status change recorded in the {@link AlarmEventJournal}.
+ */
+public final class AlarmEvent {
+
+    public enum Kind {
+        ALARM,
+        ARMING
+    }
+
+    /**
+     * What made the status change.
+     */
+    public enum Cause {
+        /** The status was set directly, for example from the control panel. */
+        USER,
+        /** The system was disarmed, which clears the alarm. */
+        DISARMED,
+        /** The system was armed while sensors were active, which resets them. */
+        ARMED,
+        SENSOR_ACTIVATED,
+        SENSOR_DEACTIVATED,
+        /** A burst of sensor changes applied in one call. */
+        SENSOR_BATCH,
+        /** A camera's cat verdict changed. */
+        CAT_VERDICT,
+        /** A camera was disconnected while it was seeing a cat. */
+        CAMERA_FORGOTTEN
+    }
+
+    private final Instant timestamp;
+    private final Kind kind;
+    private final Enum<?> oldStatus;
+    private final Enum<?> newStatus;
+    private final Cause cause;
+
+    private AlarmEvent(Instant timestamp, Kind kind, Enum<?> oldStatus, Enum<?> newStatus, Cause cause) {
+        this.timestamp = timestamp;
+        this.kind = kind;
+        this.oldStatus = oldStatus;
+        this.newStatus = newStatus;
+        this.cause = cause;
+    }
+
+    public static AlarmEvent alarm(Instant timestamp, AlarmStatus oldStatus, AlarmStatus newStatus, Cause cause) {
+        return new AlarmEvent(timestamp, Kind.ALARM, oldStatus, newStatus, cause);
+    }
+
+    public static AlarmEvent arming(Instant timestamp, ArmingStatus oldStatus, ArmingStatus newStatus, Cause cause) {
+        return new AlarmEvent(timestamp, Kind.ARMING, oldStatus, newStatus, cause);
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return The alarm status before the change, or null for arming events and for a system
+     * that had no status yet.
+     */
+    public AlarmStatus getOldAlarmStatus() {
+        return kind == Kind.ALARM ? (AlarmStatus) oldStatus : null;
+    }
+
+    /**
+     * @return The alarm status after the change, or null for arming events.
+     */
+    public AlarmStatus getNewAlarmStatus() {
+        return kind == Kind.ALARM ? (AlarmStatus) newStatus : null;
+    }
+
+    /**
+     * @return The arming status before the change, or null for alarm events and for a system
+     * that had no status yet.
+     */
+    public ArmingStatus getOldArmingStatus() {
+        return kind == Kind.ARMING ? (ArmingStatus) oldStatus : null;
+    }
+
+    /**
+     * @return The arming status after the change, or null for alarm events.
+     */
+    public ArmingStatus getNewArmingStatus() {
+        return kind == Kind.ARMING ? (ArmingStatus) newStatus : null;
+    }
+
+    public Cause getCause() {
+        return cause;
+    }
+
+    Enum<?> getOldStatus() {
+        return oldStatus;
+    }
+
+    Enum<?> getNewStatus() {
+        return newStatus;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AlarmEvent that = (AlarmEvent) o;
+        return timestamp.equals(that.timestamp) && kind == that.kind && oldStatus == that.oldStatus
+                && newStatus == that.newStatus && cause == that.cause;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(timestamp, kind, oldStatus, newStatus, cause);
+    }
+
+    @Override
+    public String toString() {
+        return timestamp + " " + kind + " " + oldStatus + " -> " + newStatus + " (" + cause + ")";
+    }
+}
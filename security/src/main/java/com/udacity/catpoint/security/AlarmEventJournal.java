@@ -0,0 +1,352 @@
+package com.udacity.catpoint.security;
+
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.ArmingStatus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Append-only history of alarm and arming status changes, kept in a directory of memory-mapped
+ * segment files. Every event is a fixed {@value #RECORD_BYTES} byte record, so appending is a few
+ * writes into the mapped region of the newest segment. When a segment is full a new one is
+ * started, and the oldest segments are deleted once more than the configured number exist.
+ *
+ * Timestamps never go backwards within a journal (an event stamped before the previous one is
+ * given the previous one's time), which keeps the records sorted. Range queries use that: each
+ * segment keeps the timestamp of every {@value #INDEX_INTERVAL}th record in a sparse index, so a
+ * query skips whole segments outside the range and jumps close to the first matching record of
+ * the rest instead of scanning the whole log. The index is rebuilt from the records on open.
+ */
+public class AlarmEventJournal implements Closeable {
+
+    private static final int MAGIC = 0x4341544A; //"CATJ"
+    private static final int VERSION = 1;
+
+    //segment header layout
+    private static final int HEADER_BYTES = 32;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int COUNT_OFFSET = 8;
+    private static final int CAPACITY_OFFSET = 12;
+
+    //record layout
+    static final int RECORD_BYTES = 16;
+    private static final int TIMESTAMP_OFFSET = 0;
+    private static final int KIND_OFFSET = 8;
+    private static final int OLD_STATUS_OFFSET = 9;
+    private static final int NEW_STATUS_OFFSET = 10;
+    private static final int CAUSE_OFFSET = 11;
+
+    static final int INDEX_INTERVAL = 64;
+
+    private static final int DEFAULT_RECORDS_PER_SEGMENT = 64 * 1024;
+    private static final int DEFAULT_MAX_SEGMENTS = 64;
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final AlarmEvent.Kind[] KINDS = AlarmEvent.Kind.values();
+    private static final AlarmEvent.Cause[] CAUSES = AlarmEvent.Cause.values();
+    private static final AlarmStatus[] ALARM_STATUSES = AlarmStatus.values();
+    private static final ArmingStatus[] ARMING_STATUSES = ArmingStatus.values();
+
+    private static final Path DEFAULT_DIRECTORY =
+            Path.of(System.getProperty("user.home"), ".catpoint", "alarm-events");
+
+    /**
+     * One mapped segment file with its sparse index.
+     */
+    private static class Segment {
+        final Path file;
+        final long sequence;
+        final MappedByteBuffer buffer;
+        final int capacity;
+        int count;
+        long[] index = new long[16];
+
+        Segment(Path file, long sequence, MappedByteBuffer buffer, int capacity) {
+            this.file = file;
+            this.sequence = sequence;
+            this.buffer = buffer;
+            this.capacity = capacity;
+        }
+
+        long timestampAt(int record) {
+            return buffer.getLong(offsetOf(record) + TIMESTAMP_OFFSET);
+        }
+
+        void indexRecord(int record) {
+            if (record % INDEX_INTERVAL == 0) {
+                int entry = record / INDEX_INTERVAL;
+                if (entry == index.length) {
+                    index = Arrays.copyOf(index, index.length * 2);
+                }
+                index[entry] = timestampAt(record);
+            }
+        }
+
+        /**
+         * @return The first record that could be at or after the timestamp, to within one index interval.
+         */
+        int seek(long timestamp) {
+            int entries = (count + INDEX_INTERVAL - 1) / INDEX_INTERVAL;
+            int low = 0;
+            int high = entries - 1;
+            int found = 0;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (index[mid] < timestamp) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found * INDEX_INTERVAL;
+        }
+    }
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final int maxSegments;
+    private final LongSupplier clock;
+    private final List<Segment> segments = new ArrayList<>();
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    public AlarmEventJournal() {
+        this(DEFAULT_DIRECTORY);
+    }
+
+    public AlarmEventJournal(Path directory) {
+        this(directory, DEFAULT_RECORDS_PER_SEGMENT, DEFAULT_MAX_SEGMENTS);
+    }
+
+    /**
+     * Opens (or creates) the journal in the given directory.
+     * @param directory Directory holding the segment files
+     * @param recordsPerSegment Events per segment file before a new one is started
+     * @param maxSegments Segment files kept before the oldest is deleted
+     */
+    public AlarmEventJournal(Path directory, int recordsPerSegment, int maxSegments) {
+        this(directory, recordsPerSegment, maxSegments, System::currentTimeMillis);
+    }
+
+    AlarmEventJournal(Path directory, int recordsPerSegment, int maxSegments, LongSupplier clock) {
+        if (recordsPerSegment < 1 || maxSegments < 1) {
+            throw new IllegalArgumentException("recordsPerSegment and maxSegments must be positive");
+        }
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.maxSegments = maxSegments;
+        this.clock = clock;
+        try {
+            Files.createDirectories(directory);
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+                stream.forEach(files::add);
+            }
+            files.sort(null); //sequence numbers are zero padded
+            for (Path file : files) {
+                segments.add(openSegment(file));
+            }
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Unable to open alarm event journal " + directory, ioe);
+        }
+        Segment newest = newest();
+        if (newest != null && newest.count > 0) {
+            lastTimestamp = newest.timestampAt(newest.count - 1);
+        }
+    }
+
+    private Segment openSegment(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        long sequence = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            //the mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if (channel.size() < HEADER_BYTES || buffer.getInt(MAGIC_OFFSET) != MAGIC
+                    || buffer.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IllegalStateException("Not an alarm event segment: " + file);
+            }
+            Segment segment = new Segment(file, sequence, buffer, buffer.getInt(CAPACITY_OFFSET));
+            segment.count = buffer.getInt(COUNT_OFFSET);
+            for (int record = 0; record < segment.count; record += INDEX_INTERVAL) {
+                segment.indexRecord(record);
+            }
+            return segment;
+        }
+    }
+
+    private Segment createSegment(long sequence) throws IOException {
+        Path file = directory.resolve(String.format("%016d%s", sequence, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_BYTES + (long) recordsPerSegment * RECORD_BYTES);
+            buffer.putInt(MAGIC_OFFSET, MAGIC);
+            buffer.putInt(VERSION_OFFSET, VERSION);
+            buffer.putInt(COUNT_OFFSET, 0);
+            buffer.putInt(CAPACITY_OFFSET, recordsPerSegment);
+            return new Segment(file, sequence, buffer, recordsPerSegment);
+        }
+    }
+
+    private static int offsetOf(int record) {
+        return HEADER_BYTES + record * RECORD_BYTES;
+    }
+
+    private Segment newest() {
+        return segments.isEmpty() ? null : segments.get(segments.size() - 1);
+    }
+
+    /**
+     * Records an alarm status change stamped with the current time.
+     */
+    public void alarmStatusChanged(AlarmStatus oldStatus, AlarmStatus newStatus, AlarmEvent.Cause cause) {
+        append(AlarmEvent.Kind.ALARM, oldStatus, newStatus, cause);
+    }
+
+    /**
+     * Records an arming status change stamped with the current time.
+     */
+    public void armingStatusChanged(ArmingStatus oldStatus, ArmingStatus newStatus, AlarmEvent.Cause cause) {
+        append(AlarmEvent.Kind.ARMING, oldStatus, newStatus, cause);
+    }
+
+    private synchronized void append(AlarmEvent.Kind kind, Enum<?> oldStatus, Enum<?> newStatus, AlarmEvent.Cause cause) {
+        Segment segment = newest();
+        try {
+            if (segment == null || segment.count == segment.capacity) {
+                segment = roll(segment);
+            }
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Unable to start alarm event segment", ioe);
+        }
+        long timestamp = Math.max(clock.getAsLong(), lastTimestamp);
+        int base = offsetOf(segment.count);
+        segment.buffer.putLong(base + TIMESTAMP_OFFSET, timestamp);
+        segment.buffer.put(base + KIND_OFFSET, (byte) kind.ordinal());
+        segment.buffer.put(base + OLD_STATUS_OFFSET, code(oldStatus));
+        segment.buffer.put(base + NEW_STATUS_OFFSET, code(newStatus));
+        segment.buffer.put(base + CAUSE_OFFSET, (byte) cause.ordinal());
+        segment.indexRecord(segment.count);
+        //count last, so a half written record is never read back
+        segment.count++;
+        segment.buffer.putInt(COUNT_OFFSET, segment.count);
+        lastTimestamp = timestamp;
+    }
+
+    private Segment roll(Segment full) throws IOException {
+        if (full != null) {
+            full.buffer.force();
+        }
+        Segment next = createSegment(full == null ? 0 : full.sequence + 1);
+        segments.add(next);
+        while (segments.size() > maxSegments) {
+            Files.deleteIfExists(segments.remove(0).file);
+        }
+        return next;
+    }
+
+    private static byte code(Enum<?> status) {
+        return (byte) (status == null ? 0 : status.ordinal() + 1);
+    }
+
+    private static AlarmEvent readEvent(Segment segment, int record) {
+        int base = offsetOf(record);
+        Instant timestamp = Instant.ofEpochMilli(segment.buffer.getLong(base + TIMESTAMP_OFFSET));
+        int oldCode = segment.buffer.get(base + OLD_STATUS_OFFSET);
+        int newCode = segment.buffer.get(base + NEW_STATUS_OFFSET);
+        AlarmEvent.Cause cause = CAUSES[segment.buffer.get(base + CAUSE_OFFSET)];
+        if (KINDS[segment.buffer.get(base + KIND_OFFSET)] == AlarmEvent.Kind.ALARM) {
+            return AlarmEvent.alarm(timestamp, oldCode == 0 ? null : ALARM_STATUSES[oldCode - 1],
+                    ALARM_STATUSES[newCode - 1], cause);
+        }
+        return AlarmEvent.arming(timestamp, oldCode == 0 ? null : ARMING_STATUSES[oldCode - 1],
+                ARMING_STATUSES[newCode - 1], cause);
+    }
+
+    /**
+     * @return The events recorded from (inclusive) to (exclusive), oldest first.
+     */
+    public List<AlarmEvent> read(Instant from, Instant to) {
+        return read(from, to, event -> true);
+    }
+
+    /**
+     * @return The events recorded from (inclusive) to (exclusive) that match the filter, oldest
+     * first. For example all alarms last week:
+     * {@code read(weekStart, weekEnd, e -> e.getNewAlarmStatus() == AlarmStatus.ALARM)}.
+     */
+    public synchronized List<AlarmEvent> read(Instant from, Instant to, Predicate<AlarmEvent> filter) {
+        long start = from.toEpochMilli();
+        long end = to.toEpochMilli();
+        List<AlarmEvent> events = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (segment.count == 0 || segment.timestampAt(segment.count - 1) < start) {
+                continue;
+            }
+            if (segment.timestampAt(0) >= end) {
+                break;
+            }
+            for (int record = segment.seek(start); record < segment.count; record++) {
+                long timestamp = segment.timestampAt(record);
+                if (timestamp >= end) {
+                    return events;
+                }
+                if (timestamp >= start) {
+                    AlarmEvent event = readEvent(segment, record);
+                    if (filter.test(event)) {
+                        events.add(event);
+                    }
+                }
+            }
+        }
+        return events;
+    }
+
+    /**
+     * @return The number of events held, across all segments still on disk.
+     */
+    public synchronized long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.count;
+        }
+        return size;
+    }
+
+    /**
+     * @return The number of segment files on disk.
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Forces the newest segment out to the storage device.
+     */
+    public synchronized void flush() {
+        Segment newest = newest();
+        if (newest != null) {
+            newest.buffer.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+    }
+}
@@ -0,0 +1,244 @@
+package com.udacity.catpoint.security;
+
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.StatusListener;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * StatusListener that hands every notification to a bounded ring buffer and delivers it to its
+ * own listeners from a dedicated consumer thread. Register it with the SecurityService in place
+ * of slow listeners so that the alarm state machine never waits on them.
+ *
+ * While a notification is still queued, a newer notify(AlarmStatus) replaces it, as does a
+ * repeated sensorStatusChanged() or an identical catDetected(). When the buffer is full the
+ * oldest queued notification is dropped. Both cases are counted.
+ */
+public class AsyncStatusDispatcher implements StatusListener, AutoCloseable {
+
+    //notification kinds
+    private static final byte ALARM_STATUS = 0;
+    private static final byte CAT_DETECTED = 1;
+    private static final byte SENSOR_STATUS = 2;
+
+    private final Set<StatusListener> statusListeners = new CopyOnWriteArraySet<>();
+
+    private final byte[] kinds;
+    private final Object[] payloads;
+    private int head;
+    private int size;
+    private boolean running = true;
+
+    private long merged;
+    private long dropped;
+    private long delivered;
+    private long failed;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Thread consumer;
+
+    /**
+     * @param capacity The maximum number of notifications waiting for delivery
+     */
+    public AsyncStatusDispatcher(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        kinds = new byte[capacity];
+        payloads = new Object[capacity];
+        consumer = new Thread(this::deliverLoop, "status-dispatcher");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    public void addStatusListener(StatusListener statusListener) {
+        statusListeners.add(statusListener);
+    }
+
+    public void removeStatusListener(StatusListener statusListener) {
+        statusListeners.remove(statusListener);
+    }
+
+    @Override
+    public void notify(AlarmStatus status) {
+        enqueue(ALARM_STATUS, status);
+    }
+
+    @Override
+    public void catDetected(boolean catDetected) {
+        enqueue(CAT_DETECTED, catDetected);
+    }
+
+    @Override
+    public void sensorStatusChanged() {
+        enqueue(SENSOR_STATUS, null);
+    }
+
+    private void enqueue(byte kind, Object payload) {
+        lock.lock();
+        try {
+            if (!running) {
+                return;
+            }
+            if (size > 0) {
+                int tail = (head + size - 1) % kinds.length;
+                if (kinds[tail] == kind && (kind != CAT_DETECTED || payloads[tail].equals(payload))) {
+                    payloads[tail] = payload; //only the latest value matters to listeners
+                    merged++;
+                    return;
+                }
+            }
+            if (size == kinds.length) {
+                payloads[head] = null;
+                head = (head + 1) % kinds.length;
+                size--;
+                dropped++;
+            }
+            int slot = (head + size) % kinds.length;
+            kinds[slot] = kind;
+            payloads[slot] = payload;
+            size++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void deliverLoop() {
+        while (true) {
+            byte kind;
+            Object payload;
+            lock.lock();
+            try {
+                while (size == 0 && running) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (size == 0) {
+                    return; //closed and drained
+                }
+                kind = kinds[head];
+                payload = payloads[head];
+                payloads[head] = null;
+                head = (head + 1) % kinds.length;
+                size--;
+            } finally {
+                lock.unlock();
+            }
+            deliver(kind, payload);
+        }
+    }
+
+    private void deliver(byte kind, Object payload) {
+        for (StatusListener statusListener : statusListeners) {
+            try {
+                switch (kind) {
+                    case ALARM_STATUS -> statusListener.notify((AlarmStatus) payload);
+                    case CAT_DETECTED -> statusListener.catDetected((Boolean) payload);
+                    default -> statusListener.sensorStatusChanged();
+                }
+            } catch (RuntimeException e) {
+                //one broken listener must not stop delivery to the others
+                countFailure();
+            }
+        }
+        lock.lock();
+        try {
+            delivered++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void countFailure() {
+        lock.lock();
+        try {
+            failed++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of notifications folded into one that was already queued.
+     */
+    public long getMergedCount() {
+        lock.lock();
+        try {
+            return merged;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of queued notifications discarded because the buffer was full.
+     */
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of notifications handed to the listeners.
+     */
+    public long getDeliveredCount() {
+        lock.lock();
+        try {
+            return delivered;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of listener calls that threw an exception.
+     */
+    public long getFailedCount() {
+        lock.lock();
+        try {
+            return failed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of notifications waiting for delivery.
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting notifications and waits for the queued ones to be delivered. If the caller
+     * is interrupted while waiting it stops waiting, with its interrupt flag set again.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            running = false;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.udacity.catpoint.security;
+
+import com.udacity.catpoint.image.FrameSource;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Feeds frames from a FrameSource to SecurityService.processImage continuously. A thread per feed
+ * reads frames into a bounded queue, and the frames are analyzed on a fixed pool of workers shared
+ * by every feed, so the number of analysis threads does not grow with the number of cameras. Each
+ * feed has at most one frame in analysis at a time and hands the worker back after every frame,
+ * so busy cameras take turns rather than starving quiet ones.
+ *
+ * When the service falls behind, the oldest queued frame is dropped to make room, so the alarm
+ * always acts on recent frames and memory stays bounded however fast the camera runs.
+ *
+ * The shared pool has one thread per core unless catpoint.camera.threads says otherwise.
+ */
+public class CameraFeed implements AutoCloseable {
+
+    private static final int ANALYZER_THREADS =
+            Integer.getInteger("catpoint.camera.threads", Runtime.getRuntime().availableProcessors());
+
+    private static class Holder {
+        private static final Executor SHARED_ANALYZERS = createAnalyzers();
+    }
+
+    private static Executor createAnalyzers() {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(ANALYZER_THREADS, r -> {
+            Thread t = new Thread(r, "camera-feed-analyzer-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private final SecurityService securityService;
+    private final String cameraId;
+    private final FrameSource source;
+    private final BlockingQueue<BufferedImage> queue;
+    private final Executor analyzers;
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final RateMeter inputRate = new RateMeter();
+    private final RateMeter processedRate = new RateMeter();
+
+    private final Thread reader;
+    private volatile boolean running = true;
+    private volatile boolean sourceDone;
+    //true while an analysis task for this feed is queued or running on the pool
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    //opened once the source is played out and every frame handled, or the feed is closed
+    private final CountDownLatch finished = new CountDownLatch(1);
+    //the pool thread analyzing a frame of this feed, guarded by this
+    private Thread worker;
+
+    /**
+     * Feed for the service's default camera.
+     * @param securityService The service frames are sent to
+     * @param source The camera
+     * @param capacity The maximum number of frames waiting to be analyzed
+     */
+    public CameraFeed(SecurityService securityService, FrameSource source, int capacity) {
+        this(securityService, SecurityService.DEFAULT_CAMERA, source, capacity);
+    }
+
+    /**
+     * Feed for one of several cameras, analyzed on the pool shared by all feeds.
+     * @param securityService The service frames are sent to
+     * @param cameraId The camera id frames are reported under
+     * @param source The camera
+     * @param capacity The maximum number of frames waiting to be analyzed
+     */
+    public CameraFeed(SecurityService securityService, String cameraId, FrameSource source, int capacity) {
+        this(securityService, cameraId, source, capacity, Holder.SHARED_ANALYZERS);
+    }
+
+    /**
+     * Feed for one of several cameras, analyzed on the given workers.
+     * @param analyzers Runs the analysis of frames, shared with other feeds as needed
+     */
+    public CameraFeed(SecurityService securityService, String cameraId, FrameSource source, int capacity,
+                      Executor analyzers) {
+        this.securityService = securityService;
+        this.cameraId = cameraId;
+        this.source = source;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.analyzers = analyzers;
+        reader = new Thread(this::readLoop, "camera-feed-reader-" + cameraId);
+        reader.setDaemon(true);
+    }
+
+    public void start() {
+        reader.start();
+    }
+
+    private void readLoop() {
+        try {
+            BufferedImage frame;
+            while (running && (frame = source.nextFrame()) != null) {
+                enqueue(frame);
+            }
+        } catch (InterruptedException e) {
+            //closing
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+        } finally {
+            sourceDone = true;
+            schedule();
+        }
+    }
+
+    private void enqueue(BufferedImage frame) {
+        received.increment();
+        inputRate.mark();
+        //only this thread adds frames, so each failed offer is followed by room after one poll
+        while (!queue.offer(frame)) {
+            if (queue.poll() != null) {
+                dropped.increment();
+            }
+        }
+        schedule();
+    }
+
+    /**
+     * Queues an analysis task unless one is already queued or running.
+     */
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            analyzers.execute(this::analyzeNext);
+        }
+    }
+
+    /**
+     * Analyzes one frame, then queues the next task if there are more, so other feeds get a turn.
+     */
+    private void analyzeNext() {
+        BufferedImage frame = running ? queue.poll() : null;
+        if (frame != null) {
+            analyze(frame);
+        }
+        if (!running) {
+            finished.countDown();
+            return;
+        }
+        //read before looking at the queue: once the source is done no more frames can arrive
+        boolean done = sourceDone;
+        if (!queue.isEmpty()) {
+            analyzers.execute(this::analyzeNext);
+            return;
+        }
+        scheduled.set(false);
+        if (!queue.isEmpty()) {
+            schedule(); //a frame arrived after the check above
+        } else if (done) {
+            finished.countDown();
+        }
+    }
+
+    private void analyze(BufferedImage frame) {
+        synchronized (this) {
+            worker = Thread.currentThread();
+        }
+        try {
+            securityService.processImage(cameraId, frame);
+            processed.increment();
+            processedRate.mark();
+        } catch (RuntimeException e) {
+            //a failed frame must not stop the feed
+            failed.increment();
+        } finally {
+            synchronized (this) {
+                worker = null;
+                //an interrupt from close is meant for this frame, not the worker's next task
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * @return The number of frames read from the source.
+     */
+    public long getReceivedCount() {
+        return received.sum();
+    }
+
+    /**
+     * @return The number of frames analyzed by the security service.
+     */
+    public long getProcessedCount() {
+        return processed.sum();
+    }
+
+    /**
+     * @return The number of frames discarded because the queue was full.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return The number of frames, or source reads, that failed with an exception.
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * @return The number of frames waiting to be analyzed.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return Frames read from the source per second, over the last second.
+     */
+    public double getInputFramesPerSecond() {
+        return inputRate.rate();
+    }
+
+    /**
+     * @return Frames analyzed per second, over the last second.
+     */
+    public double getProcessedFramesPerSecond() {
+        return processedRate.rate();
+    }
+
+    /**
+     * Waits for a finite source to be played to the end and every queued frame analyzed.
+     * @return True if the feed finished within the timeout
+     */
+    public boolean awaitCompletion(Duration timeout) throws InterruptedException {
+        return finished.await(Math.max(1, timeout.toMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops reading and analyzing frames and closes the source. Queued frames are discarded and a
+     * frame being analyzed is interrupted. If the caller is interrupted while waiting for the feed
+     * to stop it stops waiting, with its interrupt flag set again.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        source.close();
+        reader.interrupt();
+        synchronized (this) {
+            if (worker != null) {
+                worker.interrupt();
+            }
+        }
+        try {
+            reader.join();
+            //with no task in flight nobody else will open the latch
+            if (scheduled.compareAndSet(false, true)) {
+                finished.countDown();
+            }
+            finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        queue.clear();
+    }
+}
@@ -0,0 +1,119 @@
+package com.udacity.catpoint.security;
+
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.ArmingStatus;
+import com.udacity.catpoint.core.LatencyHistogram;
+import com.udacity.catpoint.core.Metrics;
+import com.udacity.catpoint.core.Sensor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * SecurityRepository decorator that times every mutation and publishes the histograms through JMX
+ * as com.udacity.catpoint:type=SecurityRepository,operation=(method). Reads are passed straight
+ * through, they are served from memory by every implementation.
+ */
+public class InstrumentedSecurityRepository implements SecurityRepository, Closeable {
+
+    private static final String COMPONENT = "SecurityRepository";
+
+    private final SecurityRepository delegate;
+    private final LatencyHistogram addSensor = Metrics.latency(COMPONENT, "addSensor");
+    private final LatencyHistogram removeSensor = Metrics.latency(COMPONENT, "removeSensor");
+    private final LatencyHistogram updateSensor = Metrics.latency(COMPONENT, "updateSensor");
+    private final LatencyHistogram updateSensors = Metrics.latency(COMPONENT, "updateSensors");
+    private final LatencyHistogram setAlarmStatus = Metrics.latency(COMPONENT, "setAlarmStatus");
+    private final LatencyHistogram setArmingStatus = Metrics.latency(COMPONENT, "setArmingStatus");
+
+    public InstrumentedSecurityRepository(SecurityRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void addSensor(Sensor sensor) {
+        long start = System.nanoTime();
+        try {
+            delegate.addSensor(sensor);
+        } finally {
+            addSensor.recordSince(start);
+        }
+    }
+
+    @Override
+    public void removeSensor(Sensor sensor) {
+        long start = System.nanoTime();
+        try {
+            delegate.removeSensor(sensor);
+        } finally {
+            removeSensor.recordSince(start);
+        }
+    }
+
+    @Override
+    public void updateSensor(Sensor sensor) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateSensor(sensor);
+        } finally {
+            updateSensor.recordSince(start);
+        }
+    }
+
+    @Override
+    public void updateSensors(Collection<Sensor> sensors) {
+        long start = System.nanoTime();
+        try {
+            delegate.updateSensors(sensors);
+        } finally {
+            updateSensors.recordSince(start);
+        }
+    }
+
+    @Override
+    public void setAlarmStatus(AlarmStatus alarmStatus) {
+        long start = System.nanoTime();
+        try {
+            delegate.setAlarmStatus(alarmStatus);
+        } finally {
+            setAlarmStatus.recordSince(start);
+        }
+    }
+
+    @Override
+    public void setArmingStatus(ArmingStatus armingStatus) {
+        long start = System.nanoTime();
+        try {
+            delegate.setArmingStatus(armingStatus);
+        } finally {
+            setArmingStatus.recordSince(start);
+        }
+    }
+
+    @Override
+    public Set<Sensor> getSensors() {
+        return delegate.getSensors();
+    }
+
+    @Override
+    public AlarmStatus getAlarmStatus() {
+        return delegate.getAlarmStatus();
+    }
+
+    @Override
+    public ArmingStatus getArmingStatus() {
+        return delegate.getArmingStatus();
+    }
+
+    /**
+     * Closes the wrapped repository if it holds resources.
+     */
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
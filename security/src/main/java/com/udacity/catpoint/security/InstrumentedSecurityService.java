@@ -0,0 +1,318 @@
+package com.udacity.catpoint.security;
+
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.ArmingStatus;
+import com.udacity.catpoint.core.LatencyHistogram;
+import com.udacity.catpoint.core.Metrics;
+import com.udacity.catpoint.core.Sensor;
+import com.udacity.catpoint.core.SensorActivation;
+import com.udacity.catpoint.core.SensorType;
+import com.udacity.catpoint.core.StatusListener;
+import com.udacity.catpoint.image.ImageService;
+
+import java.awt.image.BufferedImage;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SecurityService that times each of its public operations and each listener callback, and counts
+ * the alarm status changes it announces. Histograms are published through JMX as
+ * com.udacity.catpoint:type=SecurityService,operation=(method) and
+ * com.udacity.catpoint:type=StatusListener,operation=(callback), the counters as
+ * com.udacity.catpoint:type=SecurityService.
+ *
+ * Operation times include any nested public calls, so the single camera image methods are counted
+ * under their camera variants. Asynchronous image processing is timed until its future completes.
+ */
+public class InstrumentedSecurityService extends SecurityService implements SecurityServiceMetricsMXBean {
+
+    private static final String COMPONENT = "SecurityService";
+    private static final String LISTENERS = "StatusListener";
+
+    private final LatencyHistogram setArmingStatus = Metrics.latency(COMPONENT, "setArmingStatus");
+    private final LatencyHistogram setAlarmStatus = Metrics.latency(COMPONENT, "setAlarmStatus");
+    private final LatencyHistogram forgetCamera = Metrics.latency(COMPONENT, "forgetCamera");
+    private final LatencyHistogram getActiveSensorCount = Metrics.latency(COMPONENT, "getActiveSensorCount");
+    private final LatencyHistogram getActiveSensorCountByType = Metrics.latency(COMPONENT, "getActiveSensorCountByType");
+    private final LatencyHistogram changeSensorActivationStatus = Metrics.latency(COMPONENT, "changeSensorActivationStatus");
+    private final LatencyHistogram changeSensorActivationBatch = Metrics.latency(COMPONENT, "changeSensorActivationBatch");
+    private final LatencyHistogram processImage = Metrics.latency(COMPONENT, "processImage");
+    private final LatencyHistogram processImageAsync = Metrics.latency(COMPONENT, "processImageAsync");
+    private final LatencyHistogram getAlarmStatus = Metrics.latency(COMPONENT, "getAlarmStatus");
+    private final LatencyHistogram getArmingStatus = Metrics.latency(COMPONENT, "getArmingStatus");
+    private final LatencyHistogram getSensors = Metrics.latency(COMPONENT, "getSensors");
+    private final LatencyHistogram addSensor = Metrics.latency(COMPONENT, "addSensor");
+    private final LatencyHistogram removeSensor = Metrics.latency(COMPONENT, "removeSensor");
+
+    private final LatencyHistogram notifyListener = Metrics.latency(LISTENERS, "notify");
+    private final LatencyHistogram catDetectedListener = Metrics.latency(LISTENERS, "catDetected");
+    private final LatencyHistogram sensorStatusChangedListener = Metrics.latency(LISTENERS, "sensorStatusChanged");
+
+    private final Map<StatusListener, StatusListener> timedListeners = new ConcurrentHashMap<>();
+    private final LongAdder[] alarmStatusChanges = new LongAdder[AlarmStatus.values().length];
+
+    public InstrumentedSecurityService(SecurityRepository securityRepository, ImageService imageService) {
+        super(securityRepository, imageService);
+        for (int i = 0; i < alarmStatusChanges.length; i++) {
+            alarmStatusChanges[i] = new LongAdder();
+        }
+        super.addStatusListener(new StatusListener() {
+            @Override
+            public void notify(AlarmStatus status) {
+                alarmStatusChanges[status.ordinal()].increment();
+            }
+
+            @Override
+            public void catDetected(boolean catDetected) {
+            }
+
+            @Override
+            public void sensorStatusChanged() {
+            }
+        });
+        Metrics.register(this, "type=" + COMPONENT);
+    }
+
+    /**
+     * Wraps a listener so each callback it receives is timed.
+     */
+    private class TimedStatusListener implements StatusListener {
+        private final StatusListener delegate;
+
+        TimedStatusListener(StatusListener delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void notify(AlarmStatus status) {
+            long start = System.nanoTime();
+            try {
+                delegate.notify(status);
+            } finally {
+                notifyListener.recordSince(start);
+            }
+        }
+
+        @Override
+        public void catDetected(boolean catDetected) {
+            long start = System.nanoTime();
+            try {
+                delegate.catDetected(catDetected);
+            } finally {
+                catDetectedListener.recordSince(start);
+            }
+        }
+
+        @Override
+        public void sensorStatusChanged() {
+            long start = System.nanoTime();
+            try {
+                delegate.sensorStatusChanged();
+            } finally {
+                sensorStatusChangedListener.recordSince(start);
+            }
+        }
+    }
+
+    @Override
+    public void addStatusListener(StatusListener statusListener) {
+        super.addStatusListener(timedListeners.computeIfAbsent(statusListener, TimedStatusListener::new));
+    }
+
+    @Override
+    public void removeStatusListener(StatusListener statusListener) {
+        StatusListener timed = timedListeners.remove(statusListener);
+        if (timed != null) {
+            super.removeStatusListener(timed);
+        }
+    }
+
+    @Override
+    public void setArmingStatus(ArmingStatus armingStatus) {
+        long start = System.nanoTime();
+        try {
+            super.setArmingStatus(armingStatus);
+        } finally {
+            setArmingStatus.recordSince(start);
+        }
+    }
+
+    @Override
+    public void setAlarmStatus(AlarmStatus status) {
+        long start = System.nanoTime();
+        try {
+            super.setAlarmStatus(status);
+        } finally {
+            setAlarmStatus.recordSince(start);
+        }
+    }
+
+    @Override
+    public void forgetCamera(String cameraId) {
+        long start = System.nanoTime();
+        try {
+            super.forgetCamera(cameraId);
+        } finally {
+            forgetCamera.recordSince(start);
+        }
+    }
+
+    @Override
+    public int getActiveSensorCount() {
+        long start = System.nanoTime();
+        try {
+            return super.getActiveSensorCount();
+        } finally {
+            getActiveSensorCount.recordSince(start);
+        }
+    }
+
+    @Override
+    public int getActiveSensorCount(SensorType sensorType) {
+        long start = System.nanoTime();
+        try {
+            return super.getActiveSensorCount(sensorType);
+        } finally {
+            getActiveSensorCountByType.recordSince(start);
+        }
+    }
+
+    @Override
+    public void changeSensorActivationStatus(Sensor sensor, Boolean active) {
+        long start = System.nanoTime();
+        try {
+            super.changeSensorActivationStatus(sensor, active);
+        } finally {
+            changeSensorActivationStatus.recordSince(start);
+        }
+    }
+
+    @Override
+    public void changeSensorActivationStatus(Collection<SensorActivation> changes) {
+        long start = System.nanoTime();
+        try {
+            super.changeSensorActivationStatus(changes);
+        } finally {
+            changeSensorActivationBatch.recordSince(start);
+        }
+    }
+
+    @Override
+    public void processImage(String cameraId, BufferedImage currentCameraImage) {
+        long start = System.nanoTime();
+        try {
+            super.processImage(cameraId, currentCameraImage);
+        } finally {
+            processImage.recordSince(start);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> processImageAsync(String cameraId, BufferedImage currentCameraImage) {
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> verdict = super.processImageAsync(cameraId, currentCameraImage);
+        verdict.whenComplete((cat, e) -> processImageAsync.recordSince(start));
+        return verdict;
+    }
+
+    @Override
+    public AlarmStatus getAlarmStatus() {
+        long start = System.nanoTime();
+        try {
+            return super.getAlarmStatus();
+        } finally {
+            getAlarmStatus.recordSince(start);
+        }
+    }
+
+    @Override
+    public ArmingStatus getArmingStatus() {
+        long start = System.nanoTime();
+        try {
+            return super.getArmingStatus();
+        } finally {
+            getArmingStatus.recordSince(start);
+        }
+    }
+
+    @Override
+    public Set<Sensor> getSensors() {
+        long start = System.nanoTime();
+        try {
+            return super.getSensors();
+        } finally {
+            getSensors.recordSince(start);
+        }
+    }
+
+    @Override
+    public void addSensor(Sensor sensor) {
+        long start = System.nanoTime();
+        try {
+            super.addSensor(sensor);
+        } finally {
+            addSensor.recordSince(start);
+        }
+    }
+
+    @Override
+    public void removeSensor(Sensor sensor) {
+        long start = System.nanoTime();
+        try {
+            super.removeSensor(sensor);
+        } finally {
+            removeSensor.recordSince(start);
+        }
+    }
+
+    /**
+     * @return The histogram for the named operation, such as "setAlarmStatus", or null if the
+     * operation is not timed.
+     */
+    public LatencyHistogram getLatency(String operation) {
+        return switch (operation) {
+            case "setArmingStatus" -> setArmingStatus;
+            case "setAlarmStatus" -> setAlarmStatus;
+            case "forgetCamera" -> forgetCamera;
+            case "getActiveSensorCount" -> getActiveSensorCount;
+            case "getActiveSensorCountByType" -> getActiveSensorCountByType;
+            case "changeSensorActivationStatus" -> changeSensorActivationStatus;
+            case "changeSensorActivationBatch" -> changeSensorActivationBatch;
+            case "processImage" -> processImage;
+            case "processImageAsync" -> processImageAsync;
+            case "getAlarmStatus" -> getAlarmStatus;
+            case "getArmingStatus" -> getArmingStatus;
+            case "getSensors" -> getSensors;
+            case "addSensor" -> addSensor;
+            case "removeSensor" -> removeSensor;
+            case "listener.notify" -> notifyListener;
+            case "listener.catDetected" -> catDetectedListener;
+            case "listener.sensorStatusChanged" -> sensorStatusChangedListener;
+            default -> null;
+        };
+    }
+
+    @Override
+    public long getNoAlarmCount() {
+        return alarmStatusChanges[AlarmStatus.NO_ALARM.ordinal()].sum();
+    }
+
+    @Override
+    public long getPendingAlarmCount() {
+        return alarmStatusChanges[AlarmStatus.PENDING_ALARM.ordinal()].sum();
+    }
+
+    @Override
+    public long getAlarmCount() {
+        return alarmStatusChanges[AlarmStatus.ALARM.ordinal()].sum();
+    }
+
+    @Override
+    public int getListenerCount() {
+        return timedListeners.size();
+    }
+}
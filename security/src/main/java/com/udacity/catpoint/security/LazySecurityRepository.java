@@ -0,0 +1,88 @@
+package com.udacity.catpoint.security;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.ArmingStatus;
+import com.udacity.catpoint.core.Sensor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * SecurityRepository that opens the wrapped repository on first use. Replaying a log or parsing
+ * stored sensors can take a while, and the GUI can be shown before any of it is needed.
+ */
+public class LazySecurityRepository implements SecurityRepository, Closeable {
+
+    private final Supplier<SecurityRepository> delegate;
+    private volatile boolean opened;
+
+    /**
+     * @param factory Opens the repository, called at most once
+     */
+    public LazySecurityRepository(java.util.function.Supplier<? extends SecurityRepository> factory) {
+        this.delegate = Suppliers.memoize(() -> {
+            SecurityRepository repository = factory.get();
+            opened = true;
+            return repository;
+        });
+    }
+
+    @Override
+    public void addSensor(Sensor sensor) {
+        delegate.get().addSensor(sensor);
+    }
+
+    @Override
+    public void removeSensor(Sensor sensor) {
+        delegate.get().removeSensor(sensor);
+    }
+
+    @Override
+    public void updateSensor(Sensor sensor) {
+        delegate.get().updateSensor(sensor);
+    }
+
+    @Override
+    public void updateSensors(Collection<Sensor> sensors) {
+        delegate.get().updateSensors(sensors);
+    }
+
+    @Override
+    public void setAlarmStatus(AlarmStatus alarmStatus) {
+        delegate.get().setAlarmStatus(alarmStatus);
+    }
+
+    @Override
+    public void setArmingStatus(ArmingStatus armingStatus) {
+        delegate.get().setArmingStatus(armingStatus);
+    }
+
+    @Override
+    public Set<Sensor> getSensors() {
+        return delegate.get().getSensors();
+    }
+
+    @Override
+    public AlarmStatus getAlarmStatus() {
+        return delegate.get().getAlarmStatus();
+    }
+
+    @Override
+    public ArmingStatus getArmingStatus() {
+        return delegate.get().getArmingStatus();
+    }
+
+    /**
+     * Closes the wrapped repository if it was ever opened.
+     */
+    @Override
+    public void close() throws IOException {
+        if (opened && delegate.get() instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
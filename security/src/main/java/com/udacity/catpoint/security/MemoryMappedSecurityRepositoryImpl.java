@@ -0,0 +1,280 @@
+package com.udacity.catpoint.security;
+
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.ArmingStatus;
+import com.udacity.catpoint.core.Sensor;
+import com.udacity.catpoint.core.SensorType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Repository implementation that keeps every sensor in a fixed-width record of a memory-mapped
+ * file. Records are located through an in-memory index keyed by sensorId, so updating a sensor
+ * is an in-place write into the mapped region with no serialization, and reopening the file only
+ * has to walk the record headers to rebuild the index.
+ *
+ * One Sensor object is kept per record: the instance last written, or the one read from the file
+ * the first time it is asked for. {@link #getSensors()} always returns those same instances, so
+ * callers holding on to a sensor see the state the repository has. Names are stored inline and
+ * may be at most {@value #NAME_BYTES} bytes of UTF-8; longer names are rejected.
+ */
+public class MemoryMappedSecurityRepositoryImpl implements SecurityRepository, Closeable {
+
+    private static final int MAGIC = 0x43415453; //"CATS"
+    private static final int VERSION = 1;
+
+    //file header layout
+    private static final int HEADER_BYTES = 32;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int SLOT_COUNT_OFFSET = 8;
+    private static final int ALARM_STATUS_OFFSET = 12;
+    private static final int ARMING_STATUS_OFFSET = 13;
+
+    //record layout
+    static final int RECORD_BYTES = 64;
+    static final int NAME_BYTES = 44;
+    private static final int FLAGS_OFFSET = 0;
+    private static final int TYPE_OFFSET = 1;
+    private static final int ACTIVE_OFFSET = 2;
+    private static final int NAME_LENGTH_OFFSET = 3;
+    private static final int ID_OFFSET = 4;
+    private static final int NAME_OFFSET = 20;
+
+    private static final byte FREE = 0;
+    private static final byte USED = 1;
+
+    private static final int INITIAL_SLOTS = 1024;
+
+    private static final Path DEFAULT_STORE_FILE =
+            Path.of(System.getProperty("user.home"), ".catpoint", "sensors.dat");
+
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int slotCount;
+    private final Map<UUID, Integer> slotsById = new HashMap<>();
+    private final Map<UUID, Sensor> sensorsById = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+    public MemoryMappedSecurityRepositoryImpl() {
+        this(DEFAULT_STORE_FILE);
+    }
+
+    /**
+     * Opens (or creates) the store at the given path and indexes its records.
+     * @param storeFile The file holding the sensor records
+     */
+    public MemoryMappedSecurityRepositoryImpl(Path storeFile) {
+        try {
+            if (storeFile.getParent() != null) {
+                Files.createDirectories(storeFile.getParent());
+            }
+            channel = FileChannel.open(storeFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() < HEADER_BYTES) {
+                map(INITIAL_SLOTS);
+                buffer.putInt(MAGIC_OFFSET, MAGIC);
+                buffer.putInt(VERSION_OFFSET, VERSION);
+                buffer.putInt(SLOT_COUNT_OFFSET, 0);
+                buffer.put(ALARM_STATUS_OFFSET, (byte) AlarmStatus.NO_ALARM.ordinal());
+                buffer.put(ARMING_STATUS_OFFSET, (byte) ArmingStatus.DISARMED.ordinal());
+            } else {
+                map((int) ((channel.size() - HEADER_BYTES) / RECORD_BYTES));
+                if (buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.getInt(VERSION_OFFSET) != VERSION) {
+                    throw new IllegalStateException("Not a sensor store: " + storeFile);
+                }
+                rebuildIndex();
+            }
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Unable to open sensor store " + storeFile, ioe);
+        }
+    }
+
+    private void map(int slots) throws IOException {
+        capacity = slots;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) slots * RECORD_BYTES);
+    }
+
+    private void rebuildIndex() {
+        slotCount = buffer.getInt(SLOT_COUNT_OFFSET);
+        for (int slot = 0; slot < slotCount; slot++) {
+            int base = offsetOf(slot);
+            if (buffer.get(base + FLAGS_OFFSET) == USED) {
+                slotsById.put(readId(base), slot);
+            } else {
+                freeSlots.push(slot);
+            }
+        }
+    }
+
+    private static int offsetOf(int slot) {
+        return HEADER_BYTES + slot * RECORD_BYTES;
+    }
+
+    private UUID readId(int base) {
+        return new UUID(buffer.getLong(base + ID_OFFSET), buffer.getLong(base + ID_OFFSET + 8));
+    }
+
+    private Sensor readSensor(int base) {
+        byte[] name = new byte[buffer.get(base + NAME_LENGTH_OFFSET)];
+        buffer.get(base + NAME_OFFSET, name);
+
+        Sensor sensor = new Sensor();
+        sensor.setSensorId(readId(base));
+        sensor.setSensorType(SensorType.values()[buffer.get(base + TYPE_OFFSET)]);
+        sensor.setActive(buffer.get(base + ACTIVE_OFFSET) == 1);
+        sensor.setName(new String(name, StandardCharsets.UTF_8));
+        return sensor;
+    }
+
+    private void writeSensor(int base, Sensor sensor, byte[] name) {
+        buffer.put(base + TYPE_OFFSET, (byte) sensor.getSensorType().ordinal());
+        buffer.put(base + ACTIVE_OFFSET, (byte) (sensor.getActive() ? 1 : 0));
+        buffer.put(base + NAME_LENGTH_OFFSET, (byte) name.length);
+        buffer.putLong(base + ID_OFFSET, sensor.getSensorId().getMostSignificantBits());
+        buffer.putLong(base + ID_OFFSET + 8, sensor.getSensorId().getLeastSignificantBits());
+        buffer.put(base + NAME_OFFSET, name);
+        //flag last, so a half written record is never seen as used
+        buffer.put(base + FLAGS_OFFSET, USED);
+    }
+
+    /**
+     * Encodes the name as UTF-8.
+     * @throws IllegalArgumentException if it does not fit in a record
+     */
+    private static byte[] encodeName(String name) {
+        byte[] bytes = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > NAME_BYTES) {
+            throw new IllegalArgumentException("Sensor name longer than " + NAME_BYTES + " bytes: " + name);
+        }
+        return bytes;
+    }
+
+    private int allocateSlot() throws IOException {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+        if (slotCount == capacity) {
+            map(Math.max(capacity * 2, INITIAL_SLOTS));
+        }
+        int slot = slotCount++;
+        buffer.putInt(SLOT_COUNT_OFFSET, slotCount);
+        return slot;
+    }
+
+    @Override
+    public synchronized void addSensor(Sensor sensor) {
+        byte[] name = encodeName(sensor.getName());
+        Integer slot = slotsById.get(sensor.getSensorId());
+        try {
+            if (slot == null) {
+                slot = allocateSlot();
+                slotsById.put(sensor.getSensorId(), slot);
+            }
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Unable to grow sensor store", ioe);
+        }
+        writeSensor(offsetOf(slot), sensor, name);
+        sensorsById.put(sensor.getSensorId(), sensor);
+    }
+
+    @Override
+    public synchronized void removeSensor(Sensor sensor) {
+        Integer slot = slotsById.remove(sensor.getSensorId());
+        sensorsById.remove(sensor.getSensorId());
+        if (slot != null) {
+            buffer.put(offsetOf(slot) + FLAGS_OFFSET, FREE);
+            freeSlots.push(slot);
+        }
+    }
+
+    /**
+     * Updates the sensor record in place. When only the activation status changed this is a
+     * single byte write.
+     */
+    @Override
+    public synchronized void updateSensor(Sensor sensor) {
+        Integer slot = slotsById.get(sensor.getSensorId());
+        if (slot == null) {
+            addSensor(sensor);
+            return;
+        }
+        byte[] name = encodeName(sensor.getName());
+        int base = offsetOf(slot);
+        buffer.put(base + ACTIVE_OFFSET, (byte) (sensor.getActive() ? 1 : 0));
+        if (buffer.get(base + TYPE_OFFSET) != sensor.getSensorType().ordinal() || !nameMatches(base, name)) {
+            writeSensor(base, sensor, name);
+        }
+        sensorsById.put(sensor.getSensorId(), sensor);
+    }
+
+    private boolean nameMatches(int base, byte[] name) {
+        if (buffer.get(base + NAME_LENGTH_OFFSET) != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (buffer.get(base + NAME_OFFSET + i) != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void setAlarmStatus(AlarmStatus alarmStatus) {
+        buffer.put(ALARM_STATUS_OFFSET, (byte) alarmStatus.ordinal());
+    }
+
+    @Override
+    public synchronized void setArmingStatus(ArmingStatus armingStatus) {
+        buffer.put(ARMING_STATUS_OFFSET, (byte) armingStatus.ordinal());
+    }
+
+    @Override
+    public synchronized Set<Sensor> getSensors() {
+        Set<Sensor> sensors = new TreeSet<>();
+        slotsById.forEach((id, slot) ->
+                sensors.add(sensorsById.computeIfAbsent(id, unused -> readSensor(offsetOf(slot)))));
+        return Collections.unmodifiableSet(sensors);
+    }
+
+    @Override
+    public synchronized AlarmStatus getAlarmStatus() {
+        return AlarmStatus.values()[buffer.get(ALARM_STATUS_OFFSET)];
+    }
+
+    @Override
+    public synchronized ArmingStatus getArmingStatus() {
+        return ArmingStatus.values()[buffer.get(ARMING_STATUS_OFFSET)];
+    }
+
+    /**
+     * Forces any changes made to the mapped records out to the storage device.
+     */
+    public synchronized void flush() {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
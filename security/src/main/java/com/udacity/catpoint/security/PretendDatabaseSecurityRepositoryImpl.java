@@ -1,9 +1,12 @@
 package com.udacity.catpoint.security;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.reflect.TypeToken;
 import com.google.gson.Gson;
 
 import java.lang.reflect.Type;
+import java.util.Collection;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.prefs.Preferences;
@@ -13,10 +16,12 @@ import com.udacity.catpoint.core.*;
  * Fake repository implementation for demo purposes. Stores state information in local
  * memory and writes it to user preferences between app loads. This implementation is
  * intentionally a little hard to use in unit tests, so watch out!
+ *
+ * The sensors are only parsed from their JSON on first use, so opening the repository is cheap.
  */
 public class PretendDatabaseSecurityRepositoryImpl implements SecurityRepository {
 
-    private Set<Sensor> sensors;
+    private final Supplier<Set<Sensor>> sensors = Suppliers.memoize(PretendDatabaseSecurityRepositoryImpl::loadSensors);
     private AlarmStatus alarmStatus;
     private ArmingStatus armingStatus;
 
@@ -32,38 +37,52 @@ public class PretendDatabaseSecurityRepositoryImpl implements SecurityRepository
         //load system state from prefs, or else default
         alarmStatus = AlarmStatus.valueOf(prefs.get(ALARM_STATUS, AlarmStatus.NO_ALARM.toString()));
         armingStatus = ArmingStatus.valueOf(prefs.get(ARMING_STATUS, ArmingStatus.DISARMED.toString()));
+    }
 
+    private static Set<Sensor> loadSensors() {
         //we've serialized our sensor objects for storage, which should be a good warning sign that
         // this is likely an impractical solution for a real system
         String sensorString = prefs.get(SENSORS, null);
         if(sensorString == null) {
-            sensors = new TreeSet<>();
-        } else {
-            Type type = new TypeToken<Set<Sensor>>() {
-            }.getType();
-            sensors = gson.fromJson(sensorString, type);
+            return new TreeSet<>();
         }
+        Type type = new TypeToken<Set<Sensor>>() {
+        }.getType();
+        return gson.fromJson(sensorString, type);
     }
 
     @Override
     public void addSensor(Sensor sensor) {
+        Set<Sensor> sensors = this.sensors.get();
         sensors.add(sensor);
         prefs.put(SENSORS, gson.toJson(sensors));
     }
 
     @Override
     public void removeSensor(Sensor sensor) {
+        Set<Sensor> sensors = this.sensors.get();
         sensors.remove(sensor);
         prefs.put(SENSORS, gson.toJson(sensors));
     }
 
     @Override
     public void updateSensor(Sensor sensor) {
+        Set<Sensor> sensors = this.sensors.get();
         sensors.remove(sensor);
         sensors.add(sensor);
         prefs.put(SENSORS, gson.toJson(sensors));
     }
 
+    @Override
+    public void updateSensors(Collection<Sensor> updated) {
+        Set<Sensor> sensors = this.sensors.get();
+        updated.forEach(sensor -> {
+            sensors.remove(sensor);
+            sensors.add(sensor);
+        });
+        prefs.put(SENSORS, gson.toJson(sensors));
+    }
+
     @Override
     public void setAlarmStatus(AlarmStatus alarmStatus) {
         this.alarmStatus = alarmStatus;
@@ -78,7 +97,7 @@ public class PretendDatabaseSecurityRepositoryImpl implements SecurityRepository
 
     @Override
     public Set<Sensor> getSensors() {
-        return sensors;
+        return sensors.get();
     }
 
     @Override
@@ -0,0 +1,39 @@
+package com.udacity.catpoint.security;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Events per second, measured over the last completed one second window.
+ */
+class RateMeter {
+
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private long windowStart = System.nanoTime();
+    private long count;
+    private double rate;
+
+    synchronized void mark() {
+        roll(System.nanoTime());
+        count++;
+    }
+
+    synchronized double rate() {
+        roll(System.nanoTime());
+        return rate;
+    }
+
+    private void roll(long now) {
+        long elapsed = now - windowStart;
+        if (elapsed >= 2 * WINDOW_NANOS) {
+            //at least one whole window passed without events
+            rate = 0;
+            windowStart = now;
+            count = 0;
+        } else if (elapsed >= WINDOW_NANOS) {
+            rate = count * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+            windowStart = now;
+            count = 0;
+        }
+    }
+}
@@ -1,17 +1,32 @@
 package com.udacity.catpoint.security;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.udacity.catpoint.core.AlarmStatus;
 import com.udacity.catpoint.core.ArmingStatus;
 import com.udacity.catpoint.core.Sensor;
+import com.udacity.catpoint.core.SensorActivation;
+import com.udacity.catpoint.core.SensorType;
 import com.udacity.catpoint.core.StatusListener;
 import com.udacity.catpoint.image.ImageService;
+import com.udacity.catpoint.image.MotionGatedImageService;
 
 import java.awt.image.BufferedImage;
-import java.util.HashSet;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentSkipListSet;
-import java.util.stream.Collectors;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service that receives information about changes to the security system. Responsible for
@@ -19,16 +34,91 @@ import java.util.stream.Collectors;
  *
  * This is the class that should contain most of the business logic for our system, and it is the
  * class you will be writing unit tests for.
+ *
+ * The service can be driven from many threads at once as long as the repository it is given is
+ * itself safe for concurrent use; PretendDatabaseSecurityRepositoryImpl is not. Alarm and arming
+ * status are held together in one atomic state word that is loaded from the repository on first use
+ * and then only changed through compare-and-set transitions. Every transition bumps a version in
+ * the word. The journal entry and repository write that follow are made one at a time in version
+ * order, dropping any that a newer transition already overtook, so the repository always ends on the
+ * status held in the word. Listeners are notified after that lock is released, one delivery at a
+ * time, and each delivery is skipped once a newer status has been published, so listeners end on
+ * the word's status too. A listener may call back into the service from notify; the newer status
+ * it causes is delivered to every listener and the older one is not delivered after it. Listeners
+ * still run on the publishing thread, register slow ones through an AsyncStatusDispatcher.
+ * Concurrent updates to the same Sensor object are not coordinated, callers should route each
+ * sensor's events through a single thread.
  */
 public class SecurityService {
 
+    //state word: alarm status code in the low two bits, arming status code in the next two,
+    //where a code is the enum ordinal + 1 and 0 means the repository had no value, and above them
+    //a version that every transition increments
+    private static final long NOT_LOADED = -1;
+    private static final int ARMING_SHIFT = 2;
+    private static final long ALARM_MASK = 0b11;
+    private static final long ARMING_MASK = 0b11 << ARMING_SHIFT;
+    private static final int VERSION_SHIFT = 4;
+    private static final long VERSION_ONE = 1L << VERSION_SHIFT;
+    private static final AlarmStatus[] ALARM_STATUSES = AlarmStatus.values();
+    private static final ArmingStatus[] ARMING_STATUSES = ArmingStatus.values();
+
+    private static final float CAT_CONFIDENCE_THRESHOLD = 50.0f;
+
+    /**
+     * Camera id used by the single camera methods.
+     */
+    public static final String DEFAULT_CAMERA = "default";
+
     private ImageService imageService;
     private SecurityRepository securityRepository;
-    private Set<StatusListener> statusListeners = new HashSet<>();
+    private final Set<StatusListener> statusListeners = new CopyOnWriteArraySet<>();
+    private final Supplier<SensorRegistry> sensorRegistry;
+    private final AtomicLong state = new AtomicLong(NOT_LOADED);
+
+    //guards the versions last published for each status
+    private final Object publishLock = new Object();
+    private volatile long publishedAlarmVersion;
+    private long publishedArmingVersion;
+    //held while alarm status notifications are delivered, never while publishLock is held
+    private final Object notifyLock = new Object();
+
+    private final Map<String, CameraState> cameras = new ConcurrentHashMap<>();
+    private final AtomicInteger camerasSeeingCat = new AtomicInteger();
+
+    private final AtomicInteger imagesInFlight = new AtomicInteger();
+    private volatile int maxImagesInFlight = 4;
+    private volatile Duration imageTimeout = Duration.ofSeconds(10);
+
+    private volatile AlarmEventJournal eventJournal;
+    private volatile MotionGatedImageService motionGate;
+
+    /**
+     * Computes the alarm status that follows from the current alarm and arming status.
+     */
+    private interface AlarmTransition {
+        AlarmStatus apply(AlarmStatus alarmStatus, ArmingStatus armingStatus);
+    }
+
+    /**
+     * Latest verdict of one camera. Frames are numbered as they are submitted so that an answer
+     * for an older frame arriving after a newer one is ignored.
+     */
+    private static class CameraState {
+        final AtomicLong submitted = new AtomicLong();
+        long applied;
+        boolean cat;
+    }
 
     public SecurityService(SecurityRepository securityRepository, ImageService imageService) {
         this.securityRepository = securityRepository;
         this.imageService = imageService;
+        //seeded on first use, so building the service does not hydrate the repository's sensors
+        this.sensorRegistry = Suppliers.memoize(() -> {
+            SensorRegistry registry = new SensorRegistry();
+            registry.reset(securityRepository.getSensors());
+            return registry;
+        });
     }
 
     /**
@@ -38,28 +128,49 @@ public class SecurityService {
      */
     public void setArmingStatus(ArmingStatus armingStatus) {
         if(armingStatus == ArmingStatus.DISARMED) {
-            setAlarmStatus(AlarmStatus.NO_ALARM);
-        }else if (systemArmedContains(armingStatus)){
-            setActivationStatusToFalse(produceActiveSensors());
+            changeAlarmStatus(AlarmStatus.NO_ALARM, AlarmEvent.Cause.DISARMED);
+        }else if (systemArmedContains(armingStatus) && sensorRegistry.get().anyActive()){
+            deactivateAllSensors();
         }
-        securityRepository.setArmingStatus(armingStatus);
+        long word;
+        long next;
+        do {
+            word = currentState();
+            next = nextVersion(word) | (word & ALARM_MASK) | (long) code(armingStatus) << ARMING_SHIFT;
+        } while (!state.compareAndSet(word, next));
+        publishArmingStatus(versionOf(next), armingStatusOf(word), armingStatus);
     }
 
-   private Set<Sensor> produceActiveSensors(){
-        return getSensors()
-                .stream()
-                .filter(Sensor::getActive)
-                .collect(Collectors.toSet());
+    private void publishArmingStatus(long version, ArmingStatus previous, ArmingStatus status) {
+        synchronized (publishLock) {
+            if (version < publishedArmingVersion) {
+                return; //a newer arming status was already published
+            }
+            publishedArmingVersion = version;
+            AlarmEventJournal journal = eventJournal;
+            if (journal != null && previous != status) {
+                journal.armingStatusChanged(previous, status, AlarmEvent.Cause.USER);
+            }
+            securityRepository.setArmingStatus(status);
+        }
     }
 
-    private void setActivationStatusToFalse(Set<Sensor> sensors) {
-
-        ConcurrentSkipListSet<Sensor> copied = new ConcurrentSkipListSet<>(sensors);
-
-        for (Sensor sensor : copied) {
-            sensor.setActive(true);
-            changeSensorActivationStatus(sensor, false);
+    /**
+     * Deactivates every active sensor, with the same effect on the alarm status as deactivating
+     * them one by one, writes them to the repository in one batch and notifies listeners once.
+     */
+    private void deactivateAllSensors() {
+        List<Sensor> deactivated = sensorRegistry.get().deactivateAll();
+        if (deactivated.isEmpty()) {
+            return;
+        }
+        transitionAlarmStatus(AlarmEvent.Cause.ARMED,
+                (alarmStatus, armingStatus) -> alarmStatusAfterDeactivation(alarmStatus));
+        for (Sensor sensor : deactivated) {
+            sensor.setActive(false);
         }
+        securityRepository.updateSensors(deactivated);
+        statusListeners.forEach(StatusListener::sensorStatusChanged);
     }
 
     boolean systemArmedContains(ArmingStatus armingStatus){
@@ -68,18 +179,70 @@ public class SecurityService {
     }
 
     /**
-     * Internal method that handles alarm status changes based on whether
-     * the camera currently shows a cat.
+     * Internal method that records a camera's verdict and handles alarm status changes based on
+     * whether any camera currently shows a cat. Listeners are told the combined verdict.
+     * @param cameraId The camera the frame came from
+     * @param frame The number the frame was given when it was submitted
      * @param cat True if a cat is detected, otherwise false.
      */
-    private void catDetected(Boolean cat) {
-        if(cat && getArmingStatus() == ArmingStatus.ARMED_HOME) {
-            setAlarmStatus(AlarmStatus.ALARM);
-        } else if (!cat && checkIfAllSensorsAreInactive()){
-            setAlarmStatus(AlarmStatus.NO_ALARM);
+    private void catDetected(String cameraId, long frame, boolean cat) {
+        CameraState camera = cameras.get(cameraId);
+        if (camera == null) {
+            return; //forgotten while the frame was analyzed
         }
+        synchronized (camera) {
+            if (frame < camera.applied) {
+                return; //a newer frame from this camera was already applied
+            }
+            camera.applied = frame;
+            if (camera.cat != cat) {
+                camera.cat = cat;
+                camerasSeeingCat.addAndGet(cat ? 1 : -1);
+            }
+        }
+        applyCatVerdict(AlarmEvent.Cause.CAT_VERDICT);
+    }
+
+    private void applyCatVerdict(AlarmEvent.Cause cause) {
+        transitionAlarmStatus(cause, (alarmStatus, armingStatus) -> {
+            boolean anyCat = camerasSeeingCat.get() > 0;
+            if(anyCat && armingStatus == ArmingStatus.ARMED_HOME) {
+                return AlarmStatus.ALARM;
+            } else if (!anyCat && checkIfAllSensorsAreInactive()) {
+                return AlarmStatus.NO_ALARM;
+            }
+            return alarmStatus;
+        });
+
+        boolean anyCat = camerasSeeingCat.get() > 0;
+        statusListeners.forEach(sl -> sl.catDetected(anyCat));
+    }
+
+    private CameraState camera(String cameraId) {
+        return cameras.computeIfAbsent(cameraId, id -> new CameraState());
+    }
 
-        statusListeners.forEach(sl -> sl.catDetected(cat));
+    /**
+     * Stops counting a camera's verdict, for example when its feed is disconnected. If it was the
+     * only camera seeing a cat, the alarm status is re-evaluated as if it had stopped seeing one.
+     * @param cameraId The camera to forget
+     */
+    public void forgetCamera(String cameraId) {
+        MotionGatedImageService gate = motionGate;
+        if (gate != null) {
+            gate.forgetCamera(cameraId);
+        }
+        CameraState camera = cameras.remove(cameraId);
+        if (camera == null) {
+            return;
+        }
+        synchronized (camera) {
+            if (camera.cat) {
+                camera.cat = false;
+                camerasSeeingCat.decrementAndGet();
+            }
+        }
+        applyCatVerdict(AlarmEvent.Cause.CAMERA_FORGOTTEN);
     }
 
     /**
@@ -99,39 +262,161 @@ public class SecurityService {
      * @param status
      */
     public void setAlarmStatus(AlarmStatus status) {
-        securityRepository.setAlarmStatus(status);
-        statusListeners.forEach(sl -> sl.notify(status));
+        changeAlarmStatus(status, AlarmEvent.Cause.USER);
     }
 
-    private boolean checkIfAllSensorsAreInactive() {
-        return getSensors()
-                .stream()
-                .noneMatch(Sensor::getActive);
+    private void changeAlarmStatus(AlarmStatus status, AlarmEvent.Cause cause) {
+        long word;
+        long next;
+        do {
+            word = currentState();
+            next = withAlarmStatus(word, status);
+        } while (!state.compareAndSet(word, next));
+        publishAlarmStatus(versionOf(next), alarmStatusOf(word), status, cause);
     }
 
     /**
-     * Internal method for updating the alarm status when a sensor has been activated.
+     * Journals, stores and announces the alarm status set by the transition with the given version.
+     * Publications run one at a time, and one that lost the race to a newer transition is dropped,
+     * since the newer status has already been stored. Listeners are told outside the publish lock,
+     * and delivery stops as soon as a newer status is published, since that one is announced to
+     * every listener by its own publication, including one made by a listener from notify.
      */
-    private void handleSensorActivated() {
-        if(securityRepository.getArmingStatus() == ArmingStatus.DISARMED) {
-            return; //no problem if the system is disarmed
+    private void publishAlarmStatus(long version, AlarmStatus previous, AlarmStatus status,
+                                    AlarmEvent.Cause cause) {
+        synchronized (publishLock) {
+            if (version < publishedAlarmVersion) {
+                return;
+            }
+            publishedAlarmVersion = version;
+            AlarmEventJournal journal = eventJournal;
+            if (journal != null && previous != status) {
+                journal.alarmStatusChanged(previous, status, cause);
+            }
+            securityRepository.setAlarmStatus(status);
+        }
+        synchronized (notifyLock) {
+            for (StatusListener statusListener : statusListeners) {
+                if (publishedAlarmVersion != version) {
+                    return;
+                }
+                statusListener.notify(status);
+            }
         }
-        switch(securityRepository.getAlarmStatus()) {
-            case NO_ALARM -> setAlarmStatus(AlarmStatus.PENDING_ALARM);
-            case PENDING_ALARM -> setAlarmStatus(AlarmStatus.ALARM);
-            default -> {}
+    }
+
+    /**
+     * Record every alarm and arming status change in the journal from now on, or stop recording
+     * if the journal is null.
+     * @param eventJournal
+     */
+    public void setEventJournal(AlarmEventJournal eventJournal) {
+        this.eventJournal = eventJournal;
+    }
+
+    /**
+     * Atomically replaces the alarm status with the one computed by the transition, recomputing
+     * if another thread changed the state in the meantime. The repository and listeners are only
+     * told about the change if the transition actually moved the alarm status.
+     */
+    private void transitionAlarmStatus(AlarmEvent.Cause cause, AlarmTransition transition) {
+        while (true) {
+            long word = currentState();
+            AlarmStatus current = alarmStatusOf(word);
+            AlarmStatus status = transition.apply(current, armingStatusOf(word));
+            if (status == current) {
+                return;
+            }
+            long next = withAlarmStatus(word, status);
+            if (state.compareAndSet(word, next)) {
+                publishAlarmStatus(versionOf(next), current, status, cause);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the state word, loading it from the repository the first time it is needed.
+     */
+    private long currentState() {
+        long word = state.get();
+        if (word == NOT_LOADED) {
+            state.compareAndSet(NOT_LOADED,
+                    code(securityRepository.getAlarmStatus())
+                            | (long) code(securityRepository.getArmingStatus()) << ARMING_SHIFT);
+            word = state.get();
         }
+        return word;
+    }
+
+    private static int code(Enum<?> status) {
+        return status == null ? 0 : status.ordinal() + 1;
+    }
+
+    private static long withAlarmStatus(long word, AlarmStatus alarmStatus) {
+        return nextVersion(word) | (word & ARMING_MASK) | code(alarmStatus);
+    }
+
+    private static long nextVersion(long word) {
+        return (word & ~(ALARM_MASK | ARMING_MASK)) + VERSION_ONE;
+    }
+
+    private static long versionOf(long word) {
+        return word >>> VERSION_SHIFT;
+    }
+
+    private static AlarmStatus alarmStatusOf(long word) {
+        int code = (int) (word & ALARM_MASK);
+        return code == 0 ? null : ALARM_STATUSES[code - 1];
+    }
+
+    private static ArmingStatus armingStatusOf(long word) {
+        int code = (int) ((word & ARMING_MASK) >>> ARMING_SHIFT);
+        return code == 0 ? null : ARMING_STATUSES[code - 1];
+    }
+
+    private boolean checkIfAllSensorsAreInactive() {
+        return !sensorRegistry.get().anyActive();
     }
 
     /**
-     * Internal method for updating the alarm status when a sensor has been deactivated
+     * @return The number of sensors currently active, without scanning the repository.
      */
-    private void handleSensorDeactivated() {
-        switch(securityRepository.getAlarmStatus()) {
-            case PENDING_ALARM -> setAlarmStatus(AlarmStatus.NO_ALARM);
-            case ALARM -> setAlarmStatus(AlarmStatus.PENDING_ALARM);
-            default -> {}
+    public int getActiveSensorCount() {
+        return sensorRegistry.get().activeCount();
+    }
+
+    /**
+     * @param sensorType The type of sensor to count
+     * @return The number of sensors of the given type currently active.
+     */
+    public int getActiveSensorCount(SensorType sensorType) {
+        return sensorRegistry.get().activeCount(sensorType);
+    }
+
+    /**
+     * The alarm status that follows a sensor activation.
+     */
+    private static AlarmStatus alarmStatusAfterActivation(AlarmStatus alarmStatus, ArmingStatus armingStatus) {
+        if(armingStatus == ArmingStatus.DISARMED) {
+            return alarmStatus; //no problem if the system is disarmed
         }
+        return switch(alarmStatus) {
+            case NO_ALARM -> AlarmStatus.PENDING_ALARM;
+            case PENDING_ALARM -> AlarmStatus.ALARM;
+            default -> alarmStatus;
+        };
+    }
+
+    /**
+     * The alarm status that follows an active sensor being deactivated. Once the alarm is
+     * sounding, sensor changes no longer affect it.
+     */
+    private static AlarmStatus alarmStatusAfterDeactivation(AlarmStatus alarmStatus) {
+        return switch(alarmStatus) {
+            case PENDING_ALARM -> AlarmStatus.NO_ALARM;
+            default -> alarmStatus;
+        };
     }
 
     /**
@@ -140,28 +425,154 @@ public class SecurityService {
      * @param active
      */
     public void changeSensorActivationStatus(Sensor sensor, Boolean active) {
-        if(securityRepository.getAlarmStatus()!=AlarmStatus.ALARM) {
-            if (active) {
-                handleSensorActivated();
-            } else if (sensor.getActive()) {
-                handleSensorDeactivated();
-            }
+        if (active) {
+            transitionAlarmStatus(AlarmEvent.Cause.SENSOR_ACTIVATED, SecurityService::alarmStatusAfterActivation);
+        } else if (sensor.getActive()) {
+            transitionAlarmStatus(AlarmEvent.Cause.SENSOR_DEACTIVATED,
+                    (alarmStatus, armingStatus) -> alarmStatusAfterDeactivation(alarmStatus));
         }
+        sensorRegistry.get().activationChanged(sensor, active);
         sensor.setActive(active);
         securityRepository.updateSensor(sensor);
     }
 
+    /**
+     * Apply a burst of sensor activation changes. The alarm state machine runs for each change in
+     * order, exactly as it would for individual changeSensorActivationStatus calls, but the
+     * repository is written once for the whole batch and listeners are notified once with the
+     * resulting alarm status.
+     * @param changes The sensor changes, in the order they occurred
+     */
+    public void changeSensorActivationStatus(Collection<SensorActivation> changes) {
+        transitionAlarmStatus(AlarmEvent.Cause.SENSOR_BATCH, (alarmStatus, armingStatus) -> {
+            //replay the batch against a scratch copy of each sensor's activation status
+            Map<UUID, Boolean> activeById = new HashMap<>();
+            for (SensorActivation change : changes) {
+                Sensor sensor = change.getSensor();
+                boolean wasActive = activeById.getOrDefault(sensor.getSensorId(), sensor.getActive());
+                if (change.isActive()) {
+                    alarmStatus = alarmStatusAfterActivation(alarmStatus, armingStatus);
+                } else if (wasActive) {
+                    alarmStatus = alarmStatusAfterDeactivation(alarmStatus);
+                }
+                activeById.put(sensor.getSensorId(), change.isActive());
+            }
+            return alarmStatus;
+        });
+
+        Map<UUID, Sensor> updated = new LinkedHashMap<>();
+        for (SensorActivation change : changes) {
+            Sensor sensor = change.getSensor();
+            sensorRegistry.get().activationChanged(sensor, change.isActive());
+            sensor.setActive(change.isActive());
+            updated.put(sensor.getSensorId(), sensor);
+        }
+        securityRepository.updateSensors(updated.values());
+        statusListeners.forEach(StatusListener::sensorStatusChanged);
+    }
+
     /**
      * Send an image to the SecurityService for processing. The securityService will use its provided
      * ImageService to analyze the image for cats and update the alarm status accordingly.
      * @param currentCameraImage
      */
     public void processImage(BufferedImage currentCameraImage) {
-        catDetected(imageService.imageContainsCat(currentCameraImage, 50.0f));
+        processImage(DEFAULT_CAMERA, currentCameraImage);
+    }
+
+    /**
+     * Send an image from one of several cameras for processing. Cameras are analyzed
+     * independently and may be processed from as many threads as there are cameras; the alarm
+     * treats the system as seeing a cat while any camera's latest frame shows one.
+     * @param cameraId The camera the image came from
+     * @param currentCameraImage
+     */
+    public void processImage(String cameraId, BufferedImage currentCameraImage) {
+        long frame = camera(cameraId).submitted.incrementAndGet();
+        MotionGatedImageService gate = motionGate;
+        boolean cat = gate == null
+                ? imageService.imageContainsCat(currentCameraImage, CAT_CONFIDENCE_THRESHOLD)
+                : gate.imageContainsCat(cameraId, currentCameraImage, CAT_CONFIDENCE_THRESHOLD);
+        catDetected(cameraId, frame, cat);
+    }
+
+    /**
+     * Non-blocking version of processImage. The image is analyzed by the ImageService's
+     * asynchronous method and the alarm status is updated when the answer arrives.
+     *
+     * If the configured number of images is already being analyzed the call is refused
+     * immediately, and an answer that takes longer than the configured timeout is abandoned. In
+     * both cases the returned future fails (with RejectedExecutionException or TimeoutException)
+     * and the alarm status is left alone. An abandoned image keeps its place in the limit until the
+     * ImageService actually returns, so the limit bounds the analysis really running.
+     * @param currentCameraImage
+     * @return A future that completes with the cat verdict once the alarm status is updated
+     */
+    public CompletableFuture<Boolean> processImageAsync(BufferedImage currentCameraImage) {
+        return processImageAsync(DEFAULT_CAMERA, currentCameraImage);
+    }
+
+    /**
+     * Non-blocking version of processImage(cameraId, image), with the same limits as
+     * processImageAsync(image). The in-flight limit is shared by all cameras. An answer that
+     * arrives after the answer for a newer frame from the same camera is not applied.
+     * @param cameraId The camera the image came from
+     * @param currentCameraImage
+     * @return A future that completes with the cat verdict once the alarm status is updated
+     */
+    public CompletableFuture<Boolean> processImageAsync(String cameraId, BufferedImage currentCameraImage) {
+        int limit = maxImagesInFlight;
+        if (imagesInFlight.getAndUpdate(n -> n < limit ? n + 1 : n) >= limit) {
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Already analyzing " + limit + " images"));
+        }
+        long frame = camera(cameraId).submitted.incrementAndGet();
+        CompletableFuture<Boolean> verdict;
+        try {
+            MotionGatedImageService gate = motionGate;
+            verdict = gate == null
+                    ? imageService.imageContainsCatAsync(currentCameraImage, CAT_CONFIDENCE_THRESHOLD)
+                    : gate.imageContainsCatAsync(cameraId, currentCameraImage, CAT_CONFIDENCE_THRESHOLD);
+        } catch (RuntimeException e) {
+            imagesInFlight.decrementAndGet();
+            return CompletableFuture.failedFuture(e);
+        }
+        verdict.whenComplete((cat, e) -> imagesInFlight.decrementAndGet());
+        //time out a dependent future, timing out the verdict itself would free the slot early
+        return verdict.thenApply(cat -> cat)
+                .orTimeout(imageTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(cat -> {
+                    catDetected(cameraId, frame, cat);
+                    return cat;
+                });
+    }
+
+    /**
+     * Only send a camera's frame to the ImageService when it differs enough from the last frame of
+     * that camera that was classified; other frames get that camera's previous verdict.
+     * @param threshold Mean luminance change, from 0 to 1, needed to classify a frame, or a
+     *                  negative value to classify every frame
+     */
+    public void setMotionThreshold(double threshold) {
+        motionGate = threshold < 0 ? null : new MotionGatedImageService(imageService, threshold);
+    }
+
+    /**
+     * Configure the limits used by processImageAsync.
+     * @param maxInFlight Maximum number of images being analyzed at once
+     * @param timeout How long to wait for the ImageService before giving up on an image
+     */
+    public void setImageProcessingLimits(int maxInFlight, Duration timeout) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        this.maxImagesInFlight = maxInFlight;
+        this.imageTimeout = timeout;
     }
 
     public AlarmStatus getAlarmStatus() {
-        return securityRepository.getAlarmStatus();
+        long word = state.get();
+        return word == NOT_LOADED ? securityRepository.getAlarmStatus() : alarmStatusOf(word);
     }
 
     public Set<Sensor> getSensors() {
@@ -170,13 +581,16 @@ public class SecurityService {
 
     public void addSensor(Sensor sensor) {
         securityRepository.addSensor(sensor);
+        sensorRegistry.get().sensorAdded(sensor);
     }
 
     public void removeSensor(Sensor sensor) {
         securityRepository.removeSensor(sensor);
+        sensorRegistry.get().sensorRemoved(sensor);
     }
 
     public ArmingStatus getArmingStatus() {
-        return securityRepository.getArmingStatus();
+        long word = state.get();
+        return word == NOT_LOADED ? securityRepository.getArmingStatus() : armingStatusOf(word);
     }
 }
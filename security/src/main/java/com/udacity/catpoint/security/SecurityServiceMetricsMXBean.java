@@ -0,0 +1,27 @@
+package com.udacity.catpoint.security;
+
+/**
+ * Management view of the counters kept by {@link InstrumentedSecurityService}.
+ */
+public interface SecurityServiceMetricsMXBean {
+
+    /**
+     * @return How many times listeners were told the alarm status is NO_ALARM.
+     */
+    long getNoAlarmCount();
+
+    /**
+     * @return How many times listeners were told the alarm status is PENDING_ALARM.
+     */
+    long getPendingAlarmCount();
+
+    /**
+     * @return How many times listeners were told the alarm status is ALARM.
+     */
+    long getAlarmCount();
+
+    /**
+     * @return The number of registered listeners.
+     */
+    int getListenerCount();
+}
@@ -0,0 +1,192 @@
+package com.udacity.catpoint.security;
+
+import com.udacity.catpoint.core.Sensor;
+import com.udacity.catpoint.core.SensorType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Tracks which sensors are active without scanning the repository. Every sensor is given a dense
+ * int id the first time it is seen, and its active flag is one bit in the bitset for its
+ * SensorType. "Any active", "all active sensors" and "deactivate all" are then loops over 64-bit
+ * words, and the active counts are kept alongside so they cost nothing to read.
+ *
+ * Ids of removed sensors are reused. Kept up to date by the SecurityService on every change.
+ */
+class SensorRegistry {
+
+    private static final SensorType[] SENSOR_TYPES = SensorType.values();
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<UUID, Integer> ids = new HashMap<>();
+    private Sensor[] sensors = new Sensor[INITIAL_CAPACITY];
+    private byte[] typeOf = new byte[INITIAL_CAPACITY];
+    private final long[][] activeBits = new long[SENSOR_TYPES.length][INITIAL_CAPACITY / Long.SIZE];
+    private int[] freeIds = new int[0];
+    private int freeCount;
+    private int nextId;
+
+    private final int[] activeByType = new int[SENSOR_TYPES.length];
+    private int active;
+
+    /**
+     * Forgets every sensor and registers the given ones.
+     * @param sensors Every sensor known to the system
+     */
+    synchronized void reset(Collection<Sensor> sensors) {
+        ids.clear();
+        Arrays.fill(this.sensors, null);
+        for (long[] words : activeBits) {
+            Arrays.fill(words, 0);
+        }
+        Arrays.fill(activeByType, 0);
+        active = 0;
+        freeCount = 0;
+        nextId = 0;
+        sensors.forEach(this::sensorAdded);
+    }
+
+    synchronized void sensorAdded(Sensor sensor) {
+        int id = idOf(sensor);
+        setActive(id, sensor.getActive());
+    }
+
+    synchronized void sensorRemoved(Sensor sensor) {
+        Integer id = ids.remove(sensor.getSensorId());
+        if (id == null) {
+            return;
+        }
+        setActive(id, false);
+        sensors[id] = null;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, Math.max(freeIds.length * 2, 16));
+        }
+        freeIds[freeCount++] = id;
+    }
+
+    /**
+     * Records the new activation status of a sensor. A sensor that was never registered is
+     * registered when it becomes active.
+     */
+    synchronized void activationChanged(Sensor sensor, boolean isActive) {
+        if (!isActive && !ids.containsKey(sensor.getSensorId())) {
+            return;
+        }
+        setActive(idOf(sensor), isActive);
+    }
+
+    /**
+     * @return The registered id of the sensor, assigning a new one if needed. A sensor seen
+     * before is refreshed from the given object.
+     */
+    private int idOf(Sensor sensor) {
+        Integer existing = ids.get(sensor.getSensorId());
+        if (existing != null) {
+            refresh(existing, sensor);
+            return existing;
+        }
+        int id = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+        if (id == sensors.length) {
+            grow();
+        }
+        ids.put(sensor.getSensorId(), id);
+        sensors[id] = sensor;
+        typeOf[id] = (byte) sensor.getSensorType().ordinal();
+        return id;
+    }
+
+    /**
+     * Points the id at the latest Sensor object for it, and moves its active bit to the bitset of
+     * its new type if the type changed.
+     */
+    private void refresh(int id, Sensor sensor) {
+        sensors[id] = sensor;
+        byte type = (byte) sensor.getSensorType().ordinal();
+        if (typeOf[id] != type) {
+            boolean wasActive = (activeBits[typeOf[id]][id >>> 6] & 1L << id) != 0;
+            setActive(id, false);
+            typeOf[id] = type;
+            setActive(id, wasActive);
+        }
+    }
+
+    private void grow() {
+        int capacity = sensors.length * 2;
+        sensors = Arrays.copyOf(sensors, capacity);
+        typeOf = Arrays.copyOf(typeOf, capacity);
+        for (int t = 0; t < activeBits.length; t++) {
+            activeBits[t] = Arrays.copyOf(activeBits[t], capacity / Long.SIZE);
+        }
+    }
+
+    private void setActive(int id, boolean isActive) {
+        int type = typeOf[id];
+        long[] words = activeBits[type];
+        int word = id >>> 6;
+        long bit = 1L << id;
+        boolean wasActive = (words[word] & bit) != 0;
+        if (isActive && !wasActive) {
+            words[word] |= bit;
+            activeByType[type]++;
+            active++;
+        } else if (!isActive && wasActive) {
+            words[word] &= ~bit;
+            activeByType[type]--;
+            active--;
+        }
+    }
+
+    synchronized int activeCount() {
+        return active;
+    }
+
+    synchronized int activeCount(SensorType sensorType) {
+        return activeByType[sensorType.ordinal()];
+    }
+
+    synchronized boolean anyActive() {
+        return active > 0;
+    }
+
+    /**
+     * @return The sensors currently active, grouped by SensorType.
+     */
+    synchronized List<Sensor> activeSensors() {
+        List<Sensor> result = new ArrayList<>(active);
+        for (long[] words : activeBits) {
+            collect(words, result);
+        }
+        return result;
+    }
+
+    /**
+     * Marks every sensor inactive. The Sensor objects themselves are not touched.
+     * @return The sensors that were active, grouped by SensorType
+     */
+    synchronized List<Sensor> deactivateAll() {
+        List<Sensor> result = new ArrayList<>(active);
+        for (long[] words : activeBits) {
+            collect(words, result);
+            Arrays.fill(words, 0);
+        }
+        Arrays.fill(activeByType, 0);
+        active = 0;
+        return result;
+    }
+
+    private void collect(long[] words, List<Sensor> result) {
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                result.add(sensors[(w << 6) + Long.numberOfTrailingZeros(word)]);
+                word &= word - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.udacity.catpoint.security;
+
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.ArmingStatus;
+import com.udacity.catpoint.core.Sensor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * SecurityRepository that serializes every call to a repository that is not safe for concurrent
+ * use, such as PretendDatabaseSecurityRepositoryImpl. getSensors returns a copy taken under the
+ * lock, so callers can iterate it while other threads keep writing.
+ */
+public class SynchronizedSecurityRepository implements SecurityRepository, Closeable {
+
+    private final SecurityRepository delegate;
+
+    public SynchronizedSecurityRepository(SecurityRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void addSensor(Sensor sensor) {
+        delegate.addSensor(sensor);
+    }
+
+    @Override
+    public synchronized void removeSensor(Sensor sensor) {
+        delegate.removeSensor(sensor);
+    }
+
+    @Override
+    public synchronized void updateSensor(Sensor sensor) {
+        delegate.updateSensor(sensor);
+    }
+
+    @Override
+    public synchronized void updateSensors(Collection<Sensor> sensors) {
+        delegate.updateSensors(sensors);
+    }
+
+    @Override
+    public synchronized void setAlarmStatus(AlarmStatus alarmStatus) {
+        delegate.setAlarmStatus(alarmStatus);
+    }
+
+    @Override
+    public synchronized void setArmingStatus(ArmingStatus armingStatus) {
+        delegate.setArmingStatus(armingStatus);
+    }
+
+    @Override
+    public synchronized Set<Sensor> getSensors() {
+        return Collections.unmodifiableSortedSet(new TreeSet<>(delegate.getSensors()));
+    }
+
+    @Override
+    public synchronized AlarmStatus getAlarmStatus() {
+        return delegate.getAlarmStatus();
+    }
+
+    @Override
+    public synchronized ArmingStatus getArmingStatus() {
+        return delegate.getArmingStatus();
+    }
+
+    /**
+     * Closes the wrapped repository if it holds resources.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,645 @@
+package com.udacity.catpoint.security;
+
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.ArmingStatus;
+import com.udacity.catpoint.core.Sensor;
+import com.udacity.catpoint.core.SensorType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Repository implementation that keeps state in local memory and appends one compact binary
+ * record per mutation to a log file. The log is replayed on construction to rebuild the sensors
+ * and system status, so a write costs the same no matter how many sensors are stored.
+ *
+ * Every record is framed by its length and a CRC32 of its contents. A torn record at the end of
+ * the log (for example after a crash mid-write) is discarded and the file is truncated back to the
+ * last complete record. A damaged record with more data after it is not a torn write, so opening
+ * the log fails rather than dropping the records that follow.
+ *
+ * To keep startup from replaying the whole history, the log is sealed into a numbered segment
+ * (security.wal.0000000001, ...) whenever it grows past the segment size, and a background thread
+ * folds sealed segments into a binary snapshot of the state (security.wal.snapshot) and deletes
+ * them. Startup loads the snapshot and replays only the segments it does not cover yet and the
+ * live log. Snapshots are written to a temporary file and moved into place, so a crash during
+ * compaction leaves the previous snapshot and the segments intact. A sealed segment that does not
+ * replay to its end fails startup and compaction, and is kept rather than folded in partially.
+ */
+public class WriteAheadLogSecurityRepositoryImpl implements SecurityRepository, Closeable {
+
+    //record types
+    private static final byte PUT_SENSOR = 1;
+    private static final byte REMOVE_SENSOR = 2;
+    private static final byte ALARM_STATUS = 3;
+    private static final byte ARMING_STATUS = 4;
+
+    //record framing: payload length and CRC32 of the payload, then the payload
+    private static final int RECORD_HEADER_BYTES = 8;
+    //a sensor record with the longest name writeUTF accepts
+    private static final int MAX_RECORD_BYTES = 1 + 16 + 1 + 1 + 2 + 65535;
+
+    private static final int SNAPSHOT_MAGIC = 0x534E4150; //"SNAP"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private static final long DEFAULT_SEGMENT_BYTES = 4 * 1024 * 1024;
+
+    private static final Path DEFAULT_LOG_FILE =
+            Path.of(System.getProperty("user.home"), ".catpoint", "security.wal");
+
+    private final LogState state = new LogState();
+
+    private final Path logFile;
+    private final Path snapshotFile;
+    private final long segmentBytes;
+    private FileChannel channel;
+    private DataOutputStream log;
+    private long logStart;
+    //the record being built, framed and appended by appendRecord
+    private final RecordBuffer recordBuffer = new RecordBuffer();
+    private final DataOutputStream record = new DataOutputStream(recordBuffer);
+    private final CRC32 recordChecksum = new CRC32();
+    private long nextSegment;
+
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "catpoint-wal-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+    //the newest segment folded into the snapshot, only touched on the compactor thread after startup
+    private long snapshotSegment;
+
+    /**
+     * Sensors and system status, as held by the repository and as rebuilt by compaction.
+     */
+    private static class LogState {
+        final Set<Sensor> sensors = new TreeSet<>();
+        final Map<UUID, Sensor> sensorsById = new HashMap<>();
+        AlarmStatus alarmStatus = AlarmStatus.NO_ALARM;
+        ArmingStatus armingStatus = ArmingStatus.DISARMED;
+
+        void putSensor(Sensor sensor) {
+            Sensor previous = sensorsById.put(sensor.getSensorId(), sensor);
+            if (previous != null) {
+                sensors.remove(previous);
+            }
+            sensors.add(sensor);
+        }
+
+        void dropSensor(UUID sensorId) {
+            Sensor previous = sensorsById.remove(sensorId);
+            if (previous != null) {
+                sensors.remove(previous);
+            }
+        }
+
+        /**
+         * Applies every complete record in the log to the state. Replay stops at a torn last record;
+         * a damaged record that is followed by more data fails instead.
+         * @return The length in bytes of the valid prefix of the log
+         */
+        long replay(Path file) throws IOException {
+            long fileLength = Files.size(file);
+            CRC32 checksum = new CRC32();
+            byte[] payload = new byte[256];
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                long validLength = 0;
+                while (validLength < fileLength) {
+                    long remaining = fileLength - validLength - RECORD_HEADER_BYTES;
+                    if (remaining < 0) {
+                        return validLength; //torn header
+                    }
+                    int length = in.readInt();
+                    int expected = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_BYTES) {
+                        return tornTail(file, validLength, false);
+                    }
+                    if (length > remaining) {
+                        return validLength; //torn payload
+                    }
+                    if (length > payload.length) {
+                        payload = new byte[Math.max(length, payload.length * 2)];
+                    }
+                    in.readFully(payload, 0, length);
+                    checksum.reset();
+                    checksum.update(payload, 0, length);
+                    if ((int) checksum.getValue() != expected) {
+                        return tornTail(file, validLength, length == remaining);
+                    }
+                    try {
+                        readRecord(new DataInputStream(new ByteArrayInputStream(payload, 0, length)));
+                    } catch (EOFException | IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                        throw new IOException("Unreadable record at offset " + validLength + " of " + file, e);
+                    }
+                    validLength += RECORD_HEADER_BYTES + length;
+                }
+                return validLength;
+            }
+        }
+
+        /**
+         * Applies a sealed segment to the state. Segments are only sealed after a complete flush,
+         * so unlike the live log they can have no torn tail; one that stops short is damaged.
+         * @throws IOException If the segment does not replay to its end
+         */
+        void replaySealed(Path segment) throws IOException {
+            long validLength = replay(segment);
+            long length = Files.size(segment);
+            if (validLength != length) {
+                throw new IOException("Sealed segment " + segment + " is damaged after byte " + validLength
+                        + " of " + length);
+            }
+        }
+
+        /**
+         * Decides what a damaged record at the given offset is. It is a torn write if it is the last
+         * record in the file or only zeros follow it, as a file extended but not yet written leaves.
+         * @return The offset, as the length of the valid prefix, if the record is a torn write
+         * @throws IOException If readable data follows the damaged record
+         */
+        private static long tornTail(Path file, long offset, boolean lastRecord) throws IOException {
+            if (lastRecord || zerosFrom(file, offset + RECORD_HEADER_BYTES)) {
+                return offset;
+            }
+            throw new IOException("Damaged record at offset " + offset + " of " + file
+                    + " is followed by more data");
+        }
+
+        private static boolean zerosFrom(Path file, long offset) throws IOException {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+                in.skipNBytes(offset);
+                for (int b = in.read(); b != -1; b = in.read()) {
+                    if (b != 0) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+
+        private void readRecord(DataInputStream in) throws IOException {
+            byte type = in.readByte();
+            switch (type) {
+                case PUT_SENSOR -> putSensor(readSensor(in));
+                case REMOVE_SENSOR -> dropSensor(new UUID(in.readLong(), in.readLong()));
+                case ALARM_STATUS -> alarmStatus = AlarmStatus.values()[in.readByte()];
+                case ARMING_STATUS -> armingStatus = ArmingStatus.values()[in.readByte()];
+                default -> throw new IllegalArgumentException("Unknown record type " + type);
+            }
+        }
+
+        /**
+         * Loads a snapshot into an empty state. Snapshots list the sensors in sorted order, so the
+         * sorted set is built in linear time instead of by inserting them one by one.
+         * @return The newest segment the snapshot covers
+         */
+        long load(Path snapshot) throws IOException {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot), 1 << 16))) {
+                if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                    throw new IllegalStateException("Not a security log snapshot: " + snapshot);
+                }
+                long segment = in.readLong();
+                alarmStatus = AlarmStatus.values()[in.readByte()];
+                armingStatus = ArmingStatus.values()[in.readByte()];
+                Sensor[] loaded = new Sensor[in.readInt()];
+                boolean sorted = true;
+                for (int i = 0; i < loaded.length; i++) {
+                    loaded[i] = readSensor(in);
+                    sensorsById.put(loaded[i].getSensorId(), loaded[i]);
+                    sorted &= i == 0 || loaded[i - 1].compareTo(loaded[i]) < 0;
+                }
+                //a sensor renamed in place while stored can leave the set out of order
+                sensors.addAll(sorted ? new SortedSensors(loaded) : Arrays.asList(loaded));
+                return segment;
+            }
+        }
+
+        /**
+         * Writes the state as a snapshot covering segments up to the given one, replacing the
+         * existing snapshot only once the new one is safely on disk.
+         */
+        void store(Path snapshot, long segment) throws IOException {
+            Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(out), 1 << 16));
+                data.writeInt(SNAPSHOT_MAGIC);
+                data.writeInt(SNAPSHOT_VERSION);
+                data.writeLong(segment);
+                data.writeByte(alarmStatus.ordinal());
+                data.writeByte(armingStatus.ordinal());
+                data.writeInt(sensors.size());
+                for (Sensor sensor : sensors) {
+                    writeSensor(data, sensor);
+                }
+                data.flush();
+                out.force(true);
+            }
+            Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Read-only view of sensors already in sorted order. It only exists to be handed to
+     * TreeSet.addAll, which builds the tree in linear time when given a SortedSet with the same
+     * ordering; the other SortedSet operations are not needed and not supported.
+     */
+    private static class SortedSensors extends AbstractSet<Sensor> implements SortedSet<Sensor> {
+        private final Sensor[] sensors;
+
+        SortedSensors(Sensor[] sensors) {
+            this.sensors = sensors;
+        }
+
+        @Override
+        public Iterator<Sensor> iterator() {
+            return Arrays.asList(sensors).iterator();
+        }
+
+        @Override
+        public int size() {
+            return sensors.length;
+        }
+
+        @Override
+        public Comparator<? super Sensor> comparator() {
+            return null; //natural ordering, as used by the repository's TreeSet
+        }
+
+        @Override
+        public SortedSet<Sensor> subSet(Sensor fromElement, Sensor toElement) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedSet<Sensor> headSet(Sensor toElement) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedSet<Sensor> tailSet(Sensor fromElement) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Sensor first() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Sensor last() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    public WriteAheadLogSecurityRepositoryImpl() {
+        this(DEFAULT_LOG_FILE);
+    }
+
+    /**
+     * Opens (or creates) the log at the given path and replays it.
+     * @param logFile The file records are appended to
+     */
+    public WriteAheadLogSecurityRepositoryImpl(Path logFile) {
+        this(logFile, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Opens (or creates) the log at the given path, loading its snapshot and replaying the
+     * segments and log written since.
+     * @param logFile The file records are appended to
+     * @param segmentBytes Size the log may reach before it is sealed and handed to compaction
+     */
+    public WriteAheadLogSecurityRepositoryImpl(Path logFile, long segmentBytes) {
+        this.logFile = logFile;
+        this.snapshotFile = logFile.resolveSibling(logFile.getFileName() + SNAPSHOT_SUFFIX);
+        this.segmentBytes = segmentBytes;
+        try {
+            if (logFile.getParent() != null) {
+                Files.createDirectories(logFile.getParent());
+            }
+            snapshotSegment = Files.exists(snapshotFile) ? state.load(snapshotFile) : 0;
+            nextSegment = snapshotSegment + 1;
+            boolean pending = false;
+            for (Map.Entry<Long, Path> segment : sealedSegments().entrySet()) {
+                if (segment.getKey() <= snapshotSegment) {
+                    Files.deleteIfExists(segment.getValue()); //compacted, deletion was interrupted
+                } else {
+                    state.replaySealed(segment.getValue());
+                    nextSegment = segment.getKey() + 1;
+                    pending = true;
+                }
+            }
+            channel = FileChannel.open(logFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long validLength = state.replay(logFile);
+            channel.truncate(validLength);
+            channel.position(validLength);
+            logStart = validLength;
+            log = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            if (pending) {
+                compactor.execute(this::compactSealedSegments);
+            }
+        } catch (IOException ioe) {
+            compactor.shutdown();
+            closeQuietly(channel);
+            throw new UncheckedIOException("Unable to open security log " + logFile, ioe);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            //already failing with the original error
+        }
+    }
+
+    /**
+     * @return The sealed segment files next to the log, by segment number.
+     */
+    private Map<Long, Path> sealedSegments() throws IOException {
+        Map<Long, Path> segments = new TreeMap<>();
+        String prefix = logFile.getFileName() + ".";
+        Path directory = logFile.toAbsolutePath().getParent();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*")) {
+            for (Path file : files) {
+                String suffix = file.getFileName().toString().substring(prefix.length());
+                if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit)) {
+                    segments.put(Long.parseLong(suffix), file);
+                }
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Byte buffer whose contents can be read without copying them.
+     */
+    private static class RecordBuffer extends ByteArrayOutputStream {
+        byte[] array() {
+            return buf;
+        }
+    }
+
+    /**
+     * Appends the record built in the record buffer, framed by its length and checksum.
+     */
+    private void appendRecord() throws IOException {
+        recordChecksum.reset();
+        recordChecksum.update(recordBuffer.array(), 0, recordBuffer.size());
+        log.writeInt(recordBuffer.size());
+        log.writeInt((int) recordChecksum.getValue());
+        log.write(recordBuffer.array(), 0, recordBuffer.size());
+        recordBuffer.reset();
+    }
+
+    private Path segmentFile(long segment) {
+        return logFile.resolveSibling(logFile.getFileName() + String.format(".%010d", segment));
+    }
+
+    private static Sensor readSensor(DataInputStream in) throws IOException {
+        Sensor sensor = new Sensor();
+        sensor.setSensorId(new UUID(in.readLong(), in.readLong()));
+        sensor.setSensorType(SensorType.values()[in.readByte()]);
+        sensor.setActive(in.readBoolean());
+        sensor.setName(in.readUTF());
+        return sensor;
+    }
+
+    private static void writeSensor(DataOutputStream out, Sensor sensor) throws IOException {
+        out.writeLong(sensor.getSensorId().getMostSignificantBits());
+        out.writeLong(sensor.getSensorId().getLeastSignificantBits());
+        out.writeByte(sensor.getSensorType().ordinal());
+        out.writeBoolean(sensor.getActive());
+        out.writeUTF(sensor.getName());
+    }
+
+    /**
+     * Folds every sealed segment into the snapshot and deletes them. Sealed segments never change,
+     * so this runs without holding the repository lock.
+     */
+    private void compactSealedSegments() {
+        try {
+            Map<Long, Path> segments = sealedSegments();
+            segments.keySet().removeIf(segment -> segment <= snapshotSegment);
+            if (segments.isEmpty()) {
+                return;
+            }
+            LogState state = new LogState();
+            if (Files.exists(snapshotFile)) {
+                state.load(snapshotFile);
+            }
+            long newest = snapshotSegment;
+            for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+                state.replaySealed(segment.getValue());
+                newest = segment.getKey();
+            }
+            state.store(snapshotFile, newest);
+            snapshotSegment = newest;
+            for (Path file : segments.values()) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException ioe) {
+            //the segments are still there and are retried after the next roll
+            throw new UncheckedIOException("Unable to compact security log " + logFile, ioe);
+        }
+    }
+
+    /**
+     * Seals the log into the next segment once it has grown past the segment size.
+     */
+    private void rollIfFull() throws IOException {
+        if (logStart + log.size() >= segmentBytes) {
+            roll();
+        }
+    }
+
+    private Future<?> roll() throws IOException {
+        log.close();
+        Files.move(logFile, segmentFile(nextSegment++), StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(logFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        logStart = 0;
+        log = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        return compactor.submit(this::compactSealedSegments);
+    }
+
+    /**
+     * Seals the current log and folds it and any other sealed segments into the snapshot, waiting
+     * for that to finish. Normally compaction happens in the background as the log grows; this is
+     * for taking a snapshot at a known point, such as before a planned shutdown.
+     */
+    public void compact() throws IOException {
+        Future<?> compaction;
+        synchronized (this) {
+            log.flush();
+            compaction = logStart + log.size() > 0 ? roll() : compactor.submit(this::compactSealedSegments);
+        }
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compacting " + logFile);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            throw new IOException("Unable to compact security log " + logFile, e.getCause());
+        }
+    }
+
+    private void writeSensorRecord(Sensor sensor) throws IOException {
+        record.writeByte(PUT_SENSOR);
+        writeSensor(record, sensor);
+        appendRecord();
+    }
+
+    @Override
+    public synchronized void addSensor(Sensor sensor) {
+        state.putSensor(sensor);
+        try {
+            writeSensorRecord(sensor);
+            log.flush();
+            rollIfFull();
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Unable to append sensor record", ioe);
+        }
+    }
+
+    @Override
+    public synchronized void removeSensor(Sensor sensor) {
+        state.dropSensor(sensor.getSensorId());
+        try {
+            record.writeByte(REMOVE_SENSOR);
+            record.writeLong(sensor.getSensorId().getMostSignificantBits());
+            record.writeLong(sensor.getSensorId().getLeastSignificantBits());
+            appendRecord();
+            log.flush();
+            rollIfFull();
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Unable to append sensor removal record", ioe);
+        }
+    }
+
+    @Override
+    public synchronized void updateSensor(Sensor sensor) {
+        addSensor(sensor);
+    }
+
+    @Override
+    public synchronized void updateSensors(Collection<Sensor> updated) {
+        try {
+            for (Sensor sensor : updated) {
+                state.putSensor(sensor);
+                writeSensorRecord(sensor);
+            }
+            log.flush();
+            rollIfFull();
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Unable to append sensor records", ioe);
+        }
+    }
+
+    @Override
+    public synchronized void setAlarmStatus(AlarmStatus alarmStatus) {
+        state.alarmStatus = alarmStatus;
+        try {
+            record.writeByte(ALARM_STATUS);
+            record.writeByte(alarmStatus.ordinal());
+            appendRecord();
+            log.flush();
+            rollIfFull();
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Unable to append alarm status record", ioe);
+        }
+    }
+
+    @Override
+    public synchronized void setArmingStatus(ArmingStatus armingStatus) {
+        state.armingStatus = armingStatus;
+        try {
+            record.writeByte(ARMING_STATUS);
+            record.writeByte(armingStatus.ordinal());
+            appendRecord();
+            log.flush();
+            rollIfFull();
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Unable to append arming status record", ioe);
+        }
+    }
+
+    /**
+     * @return A sorted, unmodifiable copy taken under the lock, so callers can iterate it while
+     * other threads keep writing
+     */
+    @Override
+    public synchronized Set<Sensor> getSensors() {
+        return Collections.unmodifiableSortedSet(new TreeSet<>(state.sensors));
+    }
+
+    @Override
+    public synchronized AlarmStatus getAlarmStatus() {
+        return state.alarmStatus;
+    }
+
+    @Override
+    public synchronized ArmingStatus getArmingStatus() {
+        return state.armingStatus;
+    }
+
+    /**
+     * Closes the log after letting a running compaction finish.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        log.close();
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for log compaction");
+        }
+    }
+}
@@ -2,6 +2,7 @@ module com.udacity.catpoint.security {
     requires com.google.common;
     requires com.google.gson;
     requires java.prefs;
+    requires java.management;
     requires com.udacity.catpoint.core;
     requires java.desktop;
     requires com.udacity.catpoint.image;
@@ -0,0 +1,103 @@
+package com.udacity.catpoint.security;
+
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.ArmingStatus;
+import com.udacity.catpoint.core.Sensor;
+import com.udacity.catpoint.core.SensorType;
+import com.udacity.catpoint.image.ImageService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AlarmEventJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void rangeQuery_acrossSegments_returnsOnlyEventsInRange() {
+        AtomicLong clock = new AtomicLong(1_000);
+        try (AlarmEventJournal journal = new AlarmEventJournal(tempDir, 100, 10, clock::get)) {
+            for (int i = 0; i < 1000; i++) {
+                clock.addAndGet(10);
+                journal.alarmStatusChanged(AlarmStatus.NO_ALARM,
+                        i % 10 == 0 ? AlarmStatus.ALARM : AlarmStatus.PENDING_ALARM, AlarmEvent.Cause.SENSOR_ACTIVATED);
+            }
+            assertEquals(10, journal.getSegmentCount());
+
+            //events are stamped 1010, 1020, ... 11000
+            List<AlarmEvent> events = journal.read(Instant.ofEpochMilli(3_005), Instant.ofEpochMilli(5_010));
+            assertEquals(200, events.size());
+            assertEquals(Instant.ofEpochMilli(3_010), events.get(0).getTimestamp());
+            assertEquals(Instant.ofEpochMilli(5_000), events.get(events.size() - 1).getTimestamp());
+
+            List<AlarmEvent> alarms = journal.read(Instant.ofEpochMilli(0), Instant.ofEpochMilli(20_000),
+                    e -> e.getNewAlarmStatus() == AlarmStatus.ALARM);
+            assertEquals(100, alarms.size());
+        }
+    }
+
+    @Test
+    void reopenedJournal_keepsEventsAndDropsOldestSegments() {
+        AtomicLong clock = new AtomicLong(1_000);
+        try (AlarmEventJournal journal = new AlarmEventJournal(tempDir, 50, 3, clock::get)) {
+            for (int i = 0; i < 120; i++) {
+                journal.armingStatusChanged(ArmingStatus.DISARMED, ArmingStatus.ARMED_AWAY, AlarmEvent.Cause.USER);
+            }
+        }
+        //the clock went backwards, the new event still sorts after the old ones
+        clock.set(0);
+        try (AlarmEventJournal journal = new AlarmEventJournal(tempDir, 50, 3, clock::get)) {
+            assertEquals(120, journal.size());
+            journal.alarmStatusChanged(null, AlarmStatus.ALARM, AlarmEvent.Cause.USER);
+            journal.alarmStatusChanged(AlarmStatus.ALARM, AlarmStatus.NO_ALARM, AlarmEvent.Cause.DISARMED);
+            for (int i = 0; i < 40; i++) {
+                journal.alarmStatusChanged(AlarmStatus.NO_ALARM, AlarmStatus.PENDING_ALARM, AlarmEvent.Cause.USER);
+            }
+            assertEquals(3, journal.getSegmentCount());
+            assertEquals(112, journal.size());
+
+            List<AlarmEvent> events = journal.read(Instant.ofEpochMilli(1_000), Instant.ofEpochMilli(1_001));
+            assertEquals(AlarmEvent.alarm(Instant.ofEpochMilli(1_000), null, AlarmStatus.ALARM, AlarmEvent.Cause.USER),
+                    events.get(70));
+            assertEquals(AlarmEvent.Cause.DISARMED, events.get(71).getCause());
+            assertNull(events.get(0).getNewAlarmStatus());
+            assertEquals(ArmingStatus.ARMED_AWAY, events.get(0).getNewArmingStatus());
+        }
+    }
+
+    @Test
+    void securityService_journalsTransitionsWithTheirCause() {
+        SecurityRepository repository = mock(SecurityRepository.class);
+        when(repository.getAlarmStatus()).thenReturn(AlarmStatus.NO_ALARM);
+        when(repository.getArmingStatus()).thenReturn(ArmingStatus.DISARMED);
+        SecurityService securityService = new SecurityService(repository, mock(ImageService.class));
+        try (AlarmEventJournal journal = new AlarmEventJournal(tempDir)) {
+            securityService.setEventJournal(journal);
+            Sensor sensor = new Sensor("door", SensorType.DOOR);
+
+            securityService.setArmingStatus(ArmingStatus.ARMED_AWAY);
+            securityService.changeSensorActivationStatus(sensor, true);
+            securityService.changeSensorActivationStatus(sensor, true);
+            securityService.setArmingStatus(ArmingStatus.DISARMED);
+
+            List<AlarmEvent> events = journal.read(Instant.EPOCH, Instant.now().plusSeconds(60));
+            assertEquals(5, events.size());
+            assertEquals(ArmingStatus.ARMED_AWAY, events.get(0).getNewArmingStatus());
+            assertEquals(AlarmEvent.Cause.SENSOR_ACTIVATED, events.get(1).getCause());
+            assertEquals(AlarmStatus.PENDING_ALARM, events.get(1).getNewAlarmStatus());
+            assertEquals(AlarmStatus.PENDING_ALARM, events.get(2).getOldAlarmStatus());
+            assertEquals(AlarmStatus.ALARM, events.get(2).getNewAlarmStatus());
+            assertEquals(AlarmEvent.Cause.DISARMED, events.get(3).getCause());
+            assertEquals(ArmingStatus.DISARMED, events.get(4).getNewArmingStatus());
+        }
+    }
+}
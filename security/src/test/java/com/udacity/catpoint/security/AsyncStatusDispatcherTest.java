@@ -0,0 +1,86 @@
+package com.udacity.catpoint.security;
+
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.StatusListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AsyncStatusDispatcherTest {
+
+    /**
+     * Listener that records every callback and blocks on the first one until released, so the
+     * test can pile notifications up behind it.
+     */
+    private static class StallingListener implements StatusListener {
+        final List<Object> seen = new CopyOnWriteArrayList<>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        private void record(Object event) {
+            seen.add(event);
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void notify(AlarmStatus status) {
+            record(status);
+        }
+
+        @Override
+        public void catDetected(boolean catDetected) {
+            record(catDetected);
+        }
+
+        @Override
+        public void sensorStatusChanged() {
+            record("sensors");
+        }
+    }
+
+    @Test
+    void consecutiveAlarmNotifications_whileListenerBusy_areMergedToLatest() throws Exception {
+        StallingListener listener = new StallingListener();
+        AsyncStatusDispatcher dispatcher = new AsyncStatusDispatcher(8);
+        dispatcher.addStatusListener(listener);
+
+        dispatcher.notify(AlarmStatus.NO_ALARM);
+        listener.started.await();
+        dispatcher.notify(AlarmStatus.PENDING_ALARM);
+        dispatcher.notify(AlarmStatus.ALARM);
+        dispatcher.notify(AlarmStatus.PENDING_ALARM);
+        listener.release.countDown();
+        dispatcher.close();
+
+        assertEquals(List.of(AlarmStatus.NO_ALARM, AlarmStatus.PENDING_ALARM), listener.seen);
+        assertEquals(2, dispatcher.getMergedCount());
+        assertEquals(2, dispatcher.getDeliveredCount());
+    }
+
+    @Test
+    void fullBuffer_dropsOldestNotification() throws Exception {
+        StallingListener listener = new StallingListener();
+        AsyncStatusDispatcher dispatcher = new AsyncStatusDispatcher(2);
+        dispatcher.addStatusListener(listener);
+
+        dispatcher.sensorStatusChanged();
+        listener.started.await();
+        dispatcher.notify(AlarmStatus.ALARM);
+        dispatcher.catDetected(true);
+        dispatcher.sensorStatusChanged();
+        listener.release.countDown();
+        dispatcher.close();
+
+        assertEquals(List.of("sensors", true, "sensors"), listener.seen);
+        assertEquals(1, dispatcher.getDroppedCount());
+    }
+}
@@ -0,0 +1,133 @@
+package com.udacity.catpoint.security;
+
+import com.udacity.catpoint.image.FrameSource;
+import com.udacity.catpoint.image.ImageService;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class CameraFeedTest {
+
+    /**
+     * Source that produces a fixed number of frames as fast as they are asked for.
+     */
+    private static class BurstFrameSource implements FrameSource {
+        private final AtomicInteger remaining;
+
+        BurstFrameSource(int frames) {
+            remaining = new AtomicInteger(frames);
+        }
+
+        @Override
+        public BufferedImage nextFrame() {
+            return remaining.getAndDecrement() > 0 ? new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB) : null;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    void slowImageService_dropsOldestFramesAndBoundsQueue() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ImageService slow = (image, threshold) -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        };
+        SecurityService securityService = new SecurityService(mock(SecurityRepository.class), slow);
+
+        try (CameraFeed feed = new CameraFeed(securityService, new BurstFrameSource(100), 4)) {
+            feed.start();
+            while (feed.getReceivedCount() < 100) {
+                Thread.sleep(10);
+            }
+            assertTrue(feed.getQueueDepth() <= 4);
+            release.countDown();
+            assertTrue(feed.awaitCompletion(Duration.ofSeconds(5)));
+
+            assertEquals(100, feed.getProcessedCount() + feed.getDroppedCount());
+            assertTrue(feed.getDroppedCount() >= 95);
+            assertEquals(0, feed.getQueueDepth());
+        }
+    }
+
+    @Test
+    void manyFeeds_shareBoundedWorkers_oneFrameAtATimePerCamera() throws Exception {
+        Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+        Set<String> workerThreads = ConcurrentHashMap.newKeySet();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        SecurityService securityService = new SecurityService(mock(SecurityRepository.class), mock(ImageService.class)) {
+            @Override
+            public void processImage(String cameraId, BufferedImage currentCameraImage) {
+                AtomicInteger camera = inFlight.computeIfAbsent(cameraId, id -> new AtomicInteger());
+                if (camera.incrementAndGet() > 1) {
+                    overlapped.set(true);
+                }
+                workerThreads.add(Thread.currentThread().getName());
+                Thread.yield();
+                camera.decrementAndGet();
+            }
+        };
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        List<CameraFeed> feeds = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                CameraFeed feed = new CameraFeed(securityService, "camera " + i, new BurstFrameSource(200), 1000, workers);
+                feeds.add(feed);
+                feed.start();
+            }
+            for (CameraFeed feed : feeds) {
+                assertTrue(feed.awaitCompletion(Duration.ofSeconds(10)));
+                assertEquals(200, feed.getProcessedCount());
+            }
+            assertFalse(overlapped.get());
+            assertTrue(workerThreads.size() <= 2);
+        } finally {
+            for (CameraFeed feed : feeds) {
+                feed.close();
+            }
+            workers.shutdownNow();
+        }
+    }
+
+    @Test
+    void imageServiceFailure_doesNotStopFeed() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        ImageService flaky = (image, threshold) -> {
+            if (calls.incrementAndGet() % 2 == 0) {
+                throw new IllegalStateException("service unavailable");
+            }
+            return false;
+        };
+        SecurityService securityService = new SecurityService(mock(SecurityRepository.class), flaky);
+
+        try (CameraFeed feed = new CameraFeed(securityService, new BurstFrameSource(10), 100)) {
+            feed.start();
+            assertTrue(feed.awaitCompletion(Duration.ofSeconds(5)));
+            assertEquals(10, feed.getProcessedCount() + feed.getFailedCount());
+            assertTrue(feed.getFailedCount() > 0);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.udacity.catpoint.security;
+
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.ArmingStatus;
+import com.udacity.catpoint.core.LatencyHistogram;
+import com.udacity.catpoint.core.Sensor;
+import com.udacity.catpoint.core.SensorType;
+import com.udacity.catpoint.core.StatusListener;
+import com.udacity.catpoint.image.ImageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InstrumentedSecurityServiceTest {
+
+    @Mock
+    SecurityRepository securityRepository;
+
+    @Mock
+    ImageService imageService;
+
+    @Mock
+    StatusListener statusListener;
+
+    private InstrumentedSecurityService securityService;
+
+    @BeforeEach
+    void setUp() {
+        securityService = new InstrumentedSecurityService(securityRepository, imageService);
+    }
+
+    @Test
+    void changeSensorActivationStatus_isTimedAndCounted() throws Exception {
+        when(securityRepository.getAlarmStatus()).thenReturn(AlarmStatus.NO_ALARM);
+        when(securityRepository.getArmingStatus()).thenReturn(ArmingStatus.ARMED_HOME);
+        securityService.addStatusListener(statusListener);
+        Sensor sensor = new Sensor("door", SensorType.DOOR);
+
+        securityService.changeSensorActivationStatus(sensor, true);
+
+        verify(statusListener).notify(AlarmStatus.PENDING_ALARM);
+        assertEquals(1, securityService.getLatency("changeSensorActivationStatus").getCount());
+        assertEquals(1, securityService.getLatency("listener.notify").getCount());
+        assertEquals(1, securityService.getPendingAlarmCount());
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertEquals(1L, server.getAttribute(
+                new ObjectName("com.udacity.catpoint:type=SecurityService,operation=changeSensorActivationStatus"), "Count"));
+        assertEquals(1L, server.getAttribute(new ObjectName("com.udacity.catpoint:type=SecurityService"), "PendingAlarmCount"));
+    }
+
+    @Test
+    void removeStatusListener_removesTheTimedWrapper() {
+        securityService.addStatusListener(statusListener);
+        securityService.removeStatusListener(statusListener);
+
+        securityService.setAlarmStatus(AlarmStatus.ALARM);
+
+        verifyNoInteractions(statusListener);
+        assertEquals(0, securityService.getListenerCount());
+        assertEquals(1, securityService.getAlarmCount());
+    }
+
+    @Test
+    void repositoryMutations_areTimedAndDelegated() throws Exception {
+        InstrumentedSecurityRepository repository = new InstrumentedSecurityRepository(securityRepository);
+        Sensor sensor = new Sensor("window", SensorType.WINDOW);
+
+        repository.addSensor(sensor);
+        repository.updateSensor(sensor);
+        repository.updateSensor(sensor);
+
+        verify(securityRepository).addSensor(sensor);
+        verify(securityRepository, times(2)).updateSensor(sensor);
+        assertEquals(2L, ManagementFactory.getPlatformMBeanServer().getAttribute(
+                new ObjectName("com.udacity.catpoint:type=SecurityRepository,operation=updateSensor"), "Count"));
+    }
+
+    @Test
+    void latencyHistogram_percentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500.5, histogram.getMeanMicros(), 1e-9);
+        assertEquals(1_000_000, histogram.percentile(100));
+        long median = histogram.percentile(50);
+        assertTrue(median >= 500_000 && median <= 500_000 * 1.125, "median " + median);
+        long p99 = histogram.percentile(99);
+        assertTrue(p99 >= 990_000 && p99 <= 1_000_000, "p99 " + p99);
+    }
+}
@@ -0,0 +1,83 @@
+package com.udacity.catpoint.security;
+
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.ArmingStatus;
+import com.udacity.catpoint.core.Sensor;
+import com.udacity.catpoint.core.SensorType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryMappedSecurityRepositoryImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void reopenedStore_keepsSensorsAndStatusAcrossGrowth() throws IOException {
+        Path storeFile = tempDir.resolve("sensors.dat");
+        Sensor door = new Sensor("front", SensorType.DOOR);
+
+        try (MemoryMappedSecurityRepositoryImpl repository = new MemoryMappedSecurityRepositoryImpl(storeFile)) {
+            repository.addSensor(door);
+            for (int i = 0; i < 5000; i++) {
+                repository.addSensor(new Sensor("window " + i, SensorType.WINDOW));
+            }
+            door.setActive(true);
+            repository.updateSensor(door);
+            repository.setArmingStatus(ArmingStatus.ARMED_HOME);
+            repository.setAlarmStatus(AlarmStatus.ALARM);
+        }
+
+        try (MemoryMappedSecurityRepositoryImpl repository = new MemoryMappedSecurityRepositoryImpl(storeFile)) {
+            assertEquals(5001, repository.getSensors().size());
+            Sensor replayed = repository.getSensors().stream()
+                    .filter(s -> s.getSensorId().equals(door.getSensorId()))
+                    .findFirst().orElseThrow();
+            assertTrue(replayed.getActive());
+            assertEquals("front", replayed.getName());
+            assertEquals(ArmingStatus.ARMED_HOME, repository.getArmingStatus());
+            assertEquals(AlarmStatus.ALARM, repository.getAlarmStatus());
+        }
+    }
+
+    @Test
+    void removedSlot_isReusedAndLongNamesAreRejected() throws IOException {
+        Path storeFile = tempDir.resolve("sensors.dat");
+        Sensor first = new Sensor("first", SensorType.MOTION);
+        Sensor second = new Sensor("second", SensorType.MOTION);
+        Sensor longName = new Sensor("x".repeat(MemoryMappedSecurityRepositoryImpl.NAME_BYTES + 1), SensorType.MOTION);
+
+        try (MemoryMappedSecurityRepositoryImpl repository = new MemoryMappedSecurityRepositoryImpl(storeFile)) {
+            repository.addSensor(first);
+            repository.removeSensor(first);
+            repository.addSensor(second);
+            assertThrows(IllegalArgumentException.class, () -> repository.addSensor(longName));
+            assertEquals(Set.of(second), repository.getSensors());
+        }
+    }
+
+    @Test
+    void getSensors_returnsTheSameInstancesOnEveryCall() throws IOException {
+        Path storeFile = tempDir.resolve("sensors.dat");
+        Sensor door = new Sensor("front", SensorType.DOOR);
+
+        try (MemoryMappedSecurityRepositoryImpl repository = new MemoryMappedSecurityRepositoryImpl(storeFile)) {
+            repository.addSensor(door);
+            assertSame(door, repository.getSensors().iterator().next());
+        }
+
+        try (MemoryMappedSecurityRepositoryImpl repository = new MemoryMappedSecurityRepositoryImpl(storeFile)) {
+            Sensor loaded = repository.getSensors().iterator().next();
+            assertSame(loaded, repository.getSensors().iterator().next());
+            loaded.setActive(true);
+            repository.updateSensor(loaded);
+            assertTrue(repository.getSensors().iterator().next().getActive());
+        }
+    }
+}
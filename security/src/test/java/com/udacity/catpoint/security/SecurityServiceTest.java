@@ -3,7 +3,9 @@ package com.udacity.catpoint.security;
 import com.udacity.catpoint.core.AlarmStatus;
 import com.udacity.catpoint.core.ArmingStatus;
 import com.udacity.catpoint.core.Sensor;
+import com.udacity.catpoint.core.SensorActivation;
 import com.udacity.catpoint.core.SensorType;
+import com.udacity.catpoint.core.StatusListener;
 import com.udacity.catpoint.image.ImageService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,13 +17,25 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -80,11 +94,23 @@ public class SecurityServiceTest {
 
     @Test //tests 3
     public void whenPendingAlarmStatus_andArmingStatusArmed_ReturnNoAlarmStatus() {
+        //the service reads the status once, so the sensor is loaded active rather than activated here
         when(securityRepository.getArmingStatus()).thenReturn(ArmingStatus.ARMED_HOME);
         when(securityRepository.getAlarmStatus()).thenReturn(AlarmStatus.PENDING_ALARM);
+        simulatorSensor.setActive(true);
+        when(securityRepository.getSensors()).thenReturn(Set.of(simulatorSensor));
+        securityService.changeSensorActivationStatus(simulatorSensor, false);
+        verify(securityRepository).setAlarmStatus(AlarmStatus.NO_ALARM);
+    }
+
+    @Test
+    void whenNoAlarm_andArmingStatusArmed_sensorActivatedThenDeactivated_ReturnNoAlarmStatus() {
+        when(securityRepository.getArmingStatus()).thenReturn(ArmingStatus.ARMED_HOME);
+        when(securityRepository.getAlarmStatus()).thenReturn(AlarmStatus.NO_ALARM);
         simulatorSensor.setActive(false);
         securityService.changeSensorActivationStatus(simulatorSensor, true);
         securityService.changeSensorActivationStatus(simulatorSensor, false);
+        verify(securityRepository).setAlarmStatus(AlarmStatus.PENDING_ALARM);
         verify(securityRepository).setAlarmStatus(AlarmStatus.NO_ALARM);
     }
 
@@ -192,5 +218,247 @@ public class SecurityServiceTest {
         verify(securityRepository, times(1)).setAlarmStatus(AlarmStatus.ALARM);
     }
 
+    @Test
+    void activeSensorCount_tracksActivationChangesPerType() {
+        when(securityRepository.getArmingStatus()).thenReturn(ArmingStatus.DISARMED);
+        when(securityRepository.getAlarmStatus()).thenReturn(AlarmStatus.NO_ALARM);
+        Sensor window = new Sensor(randomString, SensorType.WINDOW);
+        securityService.changeSensorActivationStatus(simulatorSensor, true);
+        securityService.changeSensorActivationStatus(window, true);
+        securityService.changeSensorActivationStatus(simulatorSensor, false);
+        assertEquals(1, securityService.getActiveSensorCount());
+        assertEquals(0, securityService.getActiveSensorCount(SensorType.DOOR));
+        assertEquals(1, securityService.getActiveSensorCount(SensorType.WINDOW));
+    }
+
+    @Test
+    void batchActivation_armedSystem_persistsAndNotifiesOnce() {
+        StatusListener listener = mock(StatusListener.class);
+        securityService.addStatusListener(listener);
+        when(securityRepository.getArmingStatus()).thenReturn(ArmingStatus.ARMED_AWAY);
+        when(securityRepository.getAlarmStatus()).thenReturn(AlarmStatus.NO_ALARM);
+        Sensor window = new Sensor(randomString, SensorType.WINDOW);
+
+        securityService.changeSensorActivationStatus(List.of(
+                new SensorActivation(simulatorSensor, true),
+                new SensorActivation(window, true)));
+
+        verify(securityRepository, times(1)).setAlarmStatus(AlarmStatus.ALARM);
+        verify(securityRepository, times(1)).updateSensors(any());
+        verify(securityRepository, never()).updateSensor(any());
+        verify(listener, times(1)).notify(AlarmStatus.ALARM);
+        verify(listener, times(1)).sensorStatusChanged();
+        assertEquals(2, securityService.getActiveSensorCount());
+    }
+
+    @Test
+    void concurrentActivations_fromManyThreads_reachAlarmExactlyOnce() throws InterruptedException {
+        when(securityRepository.getArmingStatus()).thenReturn(ArmingStatus.ARMED_AWAY);
+        when(securityRepository.getAlarmStatus()).thenReturn(AlarmStatus.NO_ALARM);
+        List<Thread> threads = generateSensors(8).stream()
+                .map(sensor -> new Thread(() -> securityService.changeSensorActivationStatus(sensor, true)))
+                .collect(Collectors.toList());
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        verify(securityRepository, times(1)).setAlarmStatus(AlarmStatus.PENDING_ALARM);
+        verify(securityRepository, times(1)).setAlarmStatus(AlarmStatus.ALARM);
+        assertEquals(AlarmStatus.ALARM, securityService.getAlarmStatus());
+        assertEquals(8, securityService.getActiveSensorCount());
+    }
+
+    @Test
+    void concurrentAlarmChanges_repositoryAndListenersEndOnServiceStatus() throws InterruptedException {
+        when(securityRepository.getArmingStatus()).thenReturn(ArmingStatus.ARMED_HOME);
+        when(securityRepository.getAlarmStatus()).thenReturn(AlarmStatus.NO_ALARM);
+        AtomicReference<AlarmStatus> stored = new AtomicReference<>();
+        doAnswer(i -> {
+            stored.set(i.getArgument(0));
+            return null;
+        }).when(securityRepository).setAlarmStatus(any());
+        AtomicReference<AlarmStatus> notified = new AtomicReference<>();
+        securityService.addStatusListener(new StatusListener() {
+            @Override
+            public void notify(AlarmStatus status) {
+                notified.set(status);
+            }
+
+            @Override
+            public void catDetected(boolean catDetected) {
+            }
+
+            @Override
+            public void sensorStatusChanged() {
+            }
+        });
+        AlarmStatus[] statuses = AlarmStatus.values();
+        List<Thread> threads = IntStream.range(0, 8)
+                .mapToObj(t -> new Thread(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        securityService.setAlarmStatus(statuses[(t + i) % statuses.length]);
+                    }
+                }))
+                .collect(Collectors.toList());
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(securityService.getAlarmStatus(), stored.get());
+        assertEquals(securityService.getAlarmStatus(), notified.get());
+    }
+
+    private static StatusListener alarmListener(Consumer<AlarmStatus> onNotify) {
+        return new StatusListener() {
+            @Override
+            public void notify(AlarmStatus status) {
+                onNotify.accept(status);
+            }
+
+            @Override
+            public void catDetected(boolean catDetected) {
+            }
+
+            @Override
+            public void sensorStatusChanged() {
+            }
+        };
+    }
+
+    @Test
+    void listenerChangingStatusFromNotify_laterListenersOnlySeeNewerStatus() {
+        when(securityRepository.getArmingStatus()).thenReturn(ArmingStatus.ARMED_HOME);
+        when(securityRepository.getAlarmStatus()).thenReturn(AlarmStatus.NO_ALARM);
+        securityService.addStatusListener(alarmListener(status -> {
+            if (status == AlarmStatus.ALARM) {
+                securityService.setAlarmStatus(AlarmStatus.PENDING_ALARM);
+            }
+        }));
+        List<AlarmStatus> notified = new ArrayList<>();
+        securityService.addStatusListener(alarmListener(notified::add));
+
+        securityService.setAlarmStatus(AlarmStatus.ALARM);
+
+        assertEquals(List.of(AlarmStatus.PENDING_ALARM), notified);
+        assertEquals(AlarmStatus.PENDING_ALARM, securityService.getAlarmStatus());
+    }
+
+    @Test
+    void motionThreshold_unchangedFramesFromOneCamera_areClassifiedOnce() {
+        when(imageService.imageContainsCat(any(), anyFloat())).thenReturn(true);
+        securityService.setMotionThreshold(0.02);
+        BufferedImage frame = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+        securityService.processImage("front", frame);
+        securityService.processImage("front", frame);
+        securityService.processImage("back", frame);
+        verify(imageService, times(2)).imageContainsCat(any(), anyFloat());
+    }
+
+    @Test
+    void processImageAsync_catDetectedWhileArmedHome_raisesAlarm() throws Exception {
+        when(imageService.imageContainsCatAsync(any(), anyFloat())).thenReturn(CompletableFuture.completedFuture(true));
+        when(securityRepository.getArmingStatus()).thenReturn(ArmingStatus.ARMED_HOME);
+        assertTrue(securityService.processImageAsync(mock(BufferedImage.class)).get());
+        verify(securityRepository).setAlarmStatus(AlarmStatus.ALARM);
+    }
+
+    @Test
+    void processImageAsync_tooManyImagesInFlight_rejectsWithoutChangingAlarm() {
+        when(imageService.imageContainsCatAsync(any(), anyFloat())).thenReturn(new CompletableFuture<>());
+        securityService.setImageProcessingLimits(1, Duration.ofMinutes(1));
+        securityService.processImageAsync(mock(BufferedImage.class));
+        CompletableFuture<Boolean> second = securityService.processImageAsync(mock(BufferedImage.class));
+        ExecutionException e = assertThrows(ExecutionException.class, second::get);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        verify(securityRepository, never()).setAlarmStatus(any());
+    }
+
+    @Test
+    void processImageAsync_slowImageService_timesOutAndFreesSlotWhenBackendReturns() {
+        CompletableFuture<Boolean> backend = new CompletableFuture<>();
+        when(imageService.imageContainsCatAsync(any(), anyFloat())).thenReturn(backend, new CompletableFuture<>());
+        securityService.setImageProcessingLimits(1, Duration.ofMillis(20));
+        ExecutionException first = assertThrows(ExecutionException.class,
+                () -> securityService.processImageAsync(mock(BufferedImage.class)).get());
+        assertInstanceOf(TimeoutException.class, first.getCause());
+
+        //the abandoned classification is still running, so it keeps the only slot
+        ExecutionException rejected = assertThrows(ExecutionException.class,
+                () -> securityService.processImageAsync(mock(BufferedImage.class)).get());
+        assertInstanceOf(RejectedExecutionException.class, rejected.getCause());
+
+        backend.complete(true);
+        ExecutionException second = assertThrows(ExecutionException.class,
+                () -> securityService.processImageAsync(mock(BufferedImage.class)).get());
+        assertInstanceOf(TimeoutException.class, second.getCause());
+        verify(securityRepository, never()).setAlarmStatus(any());
+    }
+
+    @Test
+    void multipleCameras_catOnAnyCameraKeepsAlarmUntilAllClear() {
+        BufferedImage catImage = mock(BufferedImage.class);
+        BufferedImage emptyImage = mock(BufferedImage.class);
+        when(imageService.imageContainsCat(catImage, 50.0f)).thenReturn(true);
+        when(imageService.imageContainsCat(emptyImage, 50.0f)).thenReturn(false);
+        when(securityRepository.getArmingStatus()).thenReturn(ArmingStatus.ARMED_HOME);
+        when(securityRepository.getAlarmStatus()).thenReturn(AlarmStatus.NO_ALARM);
+
+        securityService.processImage("garden", catImage);
+        securityService.processImage("kitchen", emptyImage);
+        assertEquals(AlarmStatus.ALARM, securityService.getAlarmStatus());
+
+        securityService.processImage("garden", emptyImage);
+        assertEquals(AlarmStatus.NO_ALARM, securityService.getAlarmStatus());
+    }
+
+    @Test
+    void processImageAsync_staleVerdictFromSameCamera_isIgnored() {
+        CompletableFuture<Boolean> older = new CompletableFuture<>();
+        CompletableFuture<Boolean> newer = new CompletableFuture<>();
+        when(imageService.imageContainsCatAsync(any(), anyFloat())).thenReturn(older, newer);
+        when(securityRepository.getArmingStatus()).thenReturn(ArmingStatus.ARMED_HOME);
+        when(securityRepository.getAlarmStatus()).thenReturn(AlarmStatus.NO_ALARM);
+
+        securityService.processImageAsync("garden", mock(BufferedImage.class));
+        securityService.processImageAsync("garden", mock(BufferedImage.class));
+        newer.complete(false);
+        older.complete(true);
+
+        verify(securityRepository, never()).setAlarmStatus(AlarmStatus.ALARM);
+    }
+
+    @Test
+    void forgetCamera_lastCameraSeeingCat_clearsAlarm() {
+        when(imageService.imageContainsCat(any(), anyFloat())).thenReturn(true);
+        when(securityRepository.getArmingStatus()).thenReturn(ArmingStatus.ARMED_HOME);
+        when(securityRepository.getAlarmStatus()).thenReturn(AlarmStatus.NO_ALARM);
+
+        securityService.processImage("garden", mock(BufferedImage.class));
+        securityService.forgetCamera("garden");
+        assertEquals(AlarmStatus.NO_ALARM, securityService.getAlarmStatus());
+    }
+
+    @Test
+    void activeSensorCount_seededFromRepository() {
+        Set<Sensor> sensors = generateSensors(3);
+        sensors.forEach(it -> it.setActive(true));
+        when(securityRepository.getSensors()).thenReturn(sensors);
+        SecurityService seeded = new SecurityService(securityRepository, imageService);
+        assertEquals(3, seeded.getActiveSensorCount());
+        assertEquals(3, seeded.getActiveSensorCount(SensorType.DOOR));
+    }
+
+    @Test
+    void constructor_leavesRepositoryUntouchedUntilFirstUse() {
+        SecurityRepository lazyRepository = new LazySecurityRepository(() -> securityRepository);
+        SecurityService lazy = new SecurityService(lazyRepository, imageService);
+        verifyNoInteractions(securityRepository);
+
+        Sensor sensor = generateSensor();
+        sensor.setActive(true);
+        when(securityRepository.getSensors()).thenReturn(Set.of(sensor));
+        assertEquals(1, lazy.getActiveSensorCount());
+    }
+
 
 }
\ No newline at end of file
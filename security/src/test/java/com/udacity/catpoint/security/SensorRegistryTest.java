@@ -0,0 +1,109 @@
+package com.udacity.catpoint.security;
+
+import com.udacity.catpoint.core.Sensor;
+import com.udacity.catpoint.core.SensorType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SensorRegistryTest {
+
+    @Test
+    void activeSensors_acrossManyWords_areAllFound() {
+        SensorRegistry registry = new SensorRegistry();
+        List<Sensor> sensors = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Sensor sensor = new Sensor("sensor " + i, SensorType.values()[i % 3]);
+            sensor.setActive(i % 7 == 0);
+            sensors.add(sensor);
+        }
+        registry.reset(sensors);
+
+        Set<Sensor> expected = new HashSet<>();
+        sensors.stream().filter(Sensor::getActive).forEach(expected::add);
+        assertEquals(expected, new HashSet<>(registry.activeSensors()));
+        assertEquals(expected.size(), registry.activeCount());
+        assertEquals(expected.stream().filter(s -> s.getSensorType() == SensorType.DOOR).count(),
+                registry.activeCount(SensorType.DOOR));
+    }
+
+    @Test
+    void deactivateAll_returnsActiveSensorsAndClearsCounts() {
+        SensorRegistry registry = new SensorRegistry();
+        Sensor door = new Sensor("door", SensorType.DOOR);
+        Sensor window = new Sensor("window", SensorType.WINDOW);
+        registry.sensorAdded(door);
+        registry.sensorAdded(window);
+        registry.activationChanged(window, true);
+
+        assertEquals(List.of(window), registry.deactivateAll());
+        assertFalse(registry.anyActive());
+        assertEquals(0, registry.activeCount(SensorType.WINDOW));
+        assertTrue(registry.deactivateAll().isEmpty());
+    }
+
+    @Test
+    void knownSensor_registeredWithNewType_movesToThatType() {
+        SensorRegistry registry = new SensorRegistry();
+        Sensor sensor = new Sensor("hall", SensorType.DOOR);
+        sensor.setActive(true);
+        registry.sensorAdded(sensor);
+
+        Sensor retyped = new Sensor("hall", SensorType.MOTION);
+        retyped.setSensorId(sensor.getSensorId());
+        retyped.setActive(true);
+        registry.sensorAdded(retyped);
+
+        assertEquals(0, registry.activeCount(SensorType.DOOR));
+        assertEquals(1, registry.activeCount(SensorType.MOTION));
+        assertEquals(1, registry.activeCount());
+        assertSame(retyped, registry.activeSensors().get(0));
+    }
+
+    @Test
+    void activationChanged_withNewInstanceOrType_refreshesRegistration() {
+        SensorRegistry registry = new SensorRegistry();
+        Sensor sensor = new Sensor("hall", SensorType.DOOR);
+        registry.sensorAdded(sensor);
+
+        Sensor reloaded = new Sensor("hall", SensorType.WINDOW);
+        reloaded.setSensorId(sensor.getSensorId());
+        registry.activationChanged(reloaded, true);
+
+        assertEquals(1, registry.activeCount(SensorType.WINDOW));
+        assertEquals(0, registry.activeCount(SensorType.DOOR));
+        assertEquals(List.of(reloaded), registry.deactivateAll());
+        assertEquals(0, registry.activeCount(SensorType.WINDOW));
+    }
+
+    @Test
+    void removedSensor_idIsReusedWithoutStaleState() {
+        SensorRegistry registry = new SensorRegistry();
+        Sensor first = new Sensor("first", SensorType.MOTION);
+        first.setActive(true);
+        registry.sensorAdded(first);
+        registry.sensorRemoved(first);
+        assertFalse(registry.anyActive());
+
+        Sensor second = new Sensor("second", SensorType.DOOR);
+        registry.sensorAdded(second);
+        assertFalse(registry.anyActive());
+        registry.activationChanged(second, true);
+        assertEquals(List.of(second), registry.activeSensors());
+    }
+
+    @Test
+    void unknownSensor_deactivated_isIgnored() {
+        SensorRegistry registry = new SensorRegistry();
+        registry.activationChanged(new Sensor("ghost", SensorType.DOOR), false);
+        assertEquals(0, registry.activeCount());
+    }
+}
@@ -0,0 +1,101 @@
+package com.udacity.catpoint.security;
+
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.ArmingStatus;
+import com.udacity.catpoint.core.Sensor;
+import com.udacity.catpoint.core.SensorType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SynchronizedSecurityRepositoryTest {
+
+    /**
+     * Unsynchronized store that hands out its live sensor set, like the preferences store.
+     */
+    private static class UnsafeRepository implements SecurityRepository {
+        final Set<Sensor> sensors = new HashSet<>();
+        AlarmStatus alarmStatus = AlarmStatus.NO_ALARM;
+        ArmingStatus armingStatus = ArmingStatus.DISARMED;
+
+        @Override
+        public void addSensor(Sensor sensor) {
+            sensors.add(sensor);
+        }
+
+        @Override
+        public void removeSensor(Sensor sensor) {
+            sensors.remove(sensor);
+        }
+
+        @Override
+        public void updateSensor(Sensor sensor) {
+            sensors.remove(sensor);
+            sensors.add(sensor);
+        }
+
+        @Override
+        public void setAlarmStatus(AlarmStatus alarmStatus) {
+            this.alarmStatus = alarmStatus;
+        }
+
+        @Override
+        public void setArmingStatus(ArmingStatus armingStatus) {
+            this.armingStatus = armingStatus;
+        }
+
+        @Override
+        public Set<Sensor> getSensors() {
+            return sensors;
+        }
+
+        @Override
+        public AlarmStatus getAlarmStatus() {
+            return alarmStatus;
+        }
+
+        @Override
+        public ArmingStatus getArmingStatus() {
+            return armingStatus;
+        }
+    }
+
+    @Test
+    void getSensors_returnsSnapshotUnaffectedByLaterWrites() {
+        SynchronizedSecurityRepository repository = new SynchronizedSecurityRepository(new UnsafeRepository());
+        repository.addSensor(new Sensor("door", SensorType.DOOR));
+        Set<Sensor> snapshot = repository.getSensors();
+        repository.addSensor(new Sensor("window", SensorType.WINDOW));
+        assertEquals(1, snapshot.size());
+        assertEquals(2, repository.getSensors().size());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(new Sensor("motion", SensorType.MOTION)));
+    }
+
+    @Test
+    void concurrentWritersAndReaders_loseNoSensors() throws InterruptedException {
+        SynchronizedSecurityRepository repository = new SynchronizedSecurityRepository(new UnsafeRepository());
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    repository.addSensor(new Sensor("sensor " + i, SensorType.DOOR));
+                }
+            }));
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    repository.getSensors().forEach(Sensor::getActive);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(4000, repository.getSensors().size());
+    }
+}
@@ -0,0 +1,224 @@
+package com.udacity.catpoint.security;
+
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.ArmingStatus;
+import com.udacity.catpoint.core.Sensor;
+import com.udacity.catpoint.core.SensorType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteAheadLogSecurityRepositoryImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void reopenedRepository_replaysSensorsAndStatus() throws IOException {
+        Path logFile = tempDir.resolve("security.wal");
+        Sensor door = new Sensor("front", SensorType.DOOR);
+        Sensor window = new Sensor("kitchen", SensorType.WINDOW);
+
+        try (WriteAheadLogSecurityRepositoryImpl repository = new WriteAheadLogSecurityRepositoryImpl(logFile)) {
+            repository.addSensor(door);
+            repository.addSensor(window);
+            door.setActive(true);
+            repository.updateSensor(door);
+            repository.removeSensor(window);
+            repository.setArmingStatus(ArmingStatus.ARMED_AWAY);
+            repository.setAlarmStatus(AlarmStatus.PENDING_ALARM);
+        }
+
+        try (WriteAheadLogSecurityRepositoryImpl repository = new WriteAheadLogSecurityRepositoryImpl(logFile)) {
+            assertEquals(1, repository.getSensors().size());
+            Sensor replayed = repository.getSensors().iterator().next();
+            assertEquals(door.getSensorId(), replayed.getSensorId());
+            assertEquals("front", replayed.getName());
+            assertEquals(SensorType.DOOR, replayed.getSensorType());
+            assertTrue(replayed.getActive());
+            assertEquals(ArmingStatus.ARMED_AWAY, repository.getArmingStatus());
+            assertEquals(AlarmStatus.PENDING_ALARM, repository.getAlarmStatus());
+        }
+    }
+
+    @Test
+    void getSensors_returnsSnapshotUnaffectedByLaterWrites() throws IOException {
+        try (WriteAheadLogSecurityRepositoryImpl repository = new WriteAheadLogSecurityRepositoryImpl(tempDir.resolve("security.wal"))) {
+            Sensor door = new Sensor("front", SensorType.DOOR);
+            repository.addSensor(door);
+            Set<Sensor> snapshot = repository.getSensors();
+
+            repository.addSensor(new Sensor("kitchen", SensorType.WINDOW));
+            repository.removeSensor(door);
+
+            assertEquals(Set.of(door), snapshot);
+            assertThrows(UnsupportedOperationException.class, () -> snapshot.add(door));
+        }
+    }
+
+    @Test
+    void tornTailRecord_isDiscardedAndLogStaysAppendable() throws IOException {
+        Path logFile = tempDir.resolve("security.wal");
+        Sensor door = new Sensor("front", SensorType.DOOR);
+
+        try (WriteAheadLogSecurityRepositoryImpl repository = new WriteAheadLogSecurityRepositoryImpl(logFile)) {
+            repository.addSensor(door);
+        }
+        //half a sensor record, as if the process died mid-write
+        Files.write(logFile, new byte[]{1, 0, 0, 0}, StandardOpenOption.APPEND);
+
+        try (WriteAheadLogSecurityRepositoryImpl repository = new WriteAheadLogSecurityRepositoryImpl(logFile)) {
+            assertEquals(1, repository.getSensors().size());
+            repository.setAlarmStatus(AlarmStatus.ALARM);
+        }
+
+        try (WriteAheadLogSecurityRepositoryImpl repository = new WriteAheadLogSecurityRepositoryImpl(logFile)) {
+            assertEquals(1, repository.getSensors().size());
+            assertEquals(AlarmStatus.ALARM, repository.getAlarmStatus());
+        }
+    }
+
+    private static void flipByte(Path file, long offset) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[(int) offset] ^= 0x40;
+        Files.write(file, bytes);
+    }
+
+    @Test
+    void damagedLastRecord_isDiscarded() throws IOException {
+        Path logFile = tempDir.resolve("security.wal");
+        try (WriteAheadLogSecurityRepositoryImpl repository = new WriteAheadLogSecurityRepositoryImpl(logFile)) {
+            repository.addSensor(new Sensor("front", SensorType.DOOR));
+            repository.addSensor(new Sensor("kitchen", SensorType.WINDOW));
+        }
+        flipByte(logFile, Files.size(logFile) - 1);
+
+        try (WriteAheadLogSecurityRepositoryImpl repository = new WriteAheadLogSecurityRepositoryImpl(logFile)) {
+            assertEquals(1, repository.getSensors().size());
+            assertEquals("front", repository.getSensors().iterator().next().getName());
+        }
+    }
+
+    @Test
+    void zeroFilledTail_isDiscarded() throws IOException {
+        Path logFile = tempDir.resolve("security.wal");
+        try (WriteAheadLogSecurityRepositoryImpl repository = new WriteAheadLogSecurityRepositoryImpl(logFile)) {
+            repository.addSensor(new Sensor("front", SensorType.DOOR));
+        }
+        long length = Files.size(logFile);
+        Files.write(logFile, new byte[100], StandardOpenOption.APPEND);
+
+        try (WriteAheadLogSecurityRepositoryImpl repository = new WriteAheadLogSecurityRepositoryImpl(logFile)) {
+            assertEquals(1, repository.getSensors().size());
+        }
+        assertEquals(length, Files.size(logFile));
+    }
+
+    @Test
+    void damagedRecordFollowedByData_failsWithoutTruncating() throws IOException {
+        Path logFile = tempDir.resolve("security.wal");
+        try (WriteAheadLogSecurityRepositoryImpl repository = new WriteAheadLogSecurityRepositoryImpl(logFile)) {
+            repository.addSensor(new Sensor("front", SensorType.DOOR));
+            repository.addSensor(new Sensor("kitchen", SensorType.WINDOW));
+        }
+        long length = Files.size(logFile);
+        //a byte of the first sensor's id, past the 8 byte record header and the type byte
+        flipByte(logFile, 10);
+
+        assertThrows(UncheckedIOException.class, () -> new WriteAheadLogSecurityRepositoryImpl(logFile));
+        assertEquals(length, Files.size(logFile));
+    }
+
+    /**
+     * Writes a log holding two sensors and turns it into a sealed segment missing its last bytes.
+     */
+    private Path damagedSegment(Path logFile, long segment) throws IOException {
+        Path source = tempDir.resolve("source.wal");
+        try (WriteAheadLogSecurityRepositoryImpl repository = new WriteAheadLogSecurityRepositoryImpl(source)) {
+            repository.addSensor(new Sensor("front", SensorType.DOOR));
+            repository.addSensor(new Sensor("kitchen", SensorType.WINDOW));
+        }
+        byte[] bytes = Files.readAllBytes(source);
+        Files.delete(source);
+        Path file = logFile.resolveSibling(logFile.getFileName() + String.format(".%010d", segment));
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        return file;
+    }
+
+    @Test
+    void damagedSealedSegment_failsStartupAndIsKept() throws IOException {
+        Path logFile = tempDir.resolve("security.wal");
+        Path segment = damagedSegment(logFile, 1);
+
+        assertThrows(UncheckedIOException.class, () -> new WriteAheadLogSecurityRepositoryImpl(logFile));
+        assertTrue(Files.exists(segment));
+        assertFalse(Files.exists(tempDir.resolve("security.wal.snapshot")));
+    }
+
+    @Test
+    void damagedSealedSegment_failsCompactionAndIsKept() throws IOException {
+        Path logFile = tempDir.resolve("security.wal");
+        try (WriteAheadLogSecurityRepositoryImpl repository = new WriteAheadLogSecurityRepositoryImpl(logFile)) {
+            repository.setAlarmStatus(AlarmStatus.ALARM);
+            Path segment = damagedSegment(logFile, 5);
+
+            assertThrows(IOException.class, repository::compact);
+            assertTrue(Files.exists(segment));
+            assertFalse(Files.exists(tempDir.resolve("security.wal.snapshot")));
+        }
+    }
+
+    @Test
+    void sealedSegments_areCompactedIntoSnapshotAndReplayedOnStartup() throws IOException {
+        Path logFile = tempDir.resolve("security.wal");
+        Sensor door = new Sensor("front", SensorType.DOOR);
+
+        try (WriteAheadLogSecurityRepositoryImpl repository = new WriteAheadLogSecurityRepositoryImpl(logFile, 1024)) {
+            repository.addSensor(door);
+            for (int i = 0; i < 500; i++) {
+                Sensor window = new Sensor("window " + i, SensorType.WINDOW);
+                repository.addSensor(window);
+                if (i % 2 == 0) {
+                    repository.removeSensor(window);
+                }
+                door.setActive(!door.getActive());
+                repository.updateSensor(door);
+            }
+            repository.setArmingStatus(ArmingStatus.ARMED_HOME);
+        }
+        //closing waits for compaction, so every sealed segment is in the snapshot by now
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(Set.of("security.wal", "security.wal.snapshot"),
+                    files.map(f -> f.getFileName().toString()).collect(Collectors.toSet()));
+        }
+
+        try (WriteAheadLogSecurityRepositoryImpl repository = new WriteAheadLogSecurityRepositoryImpl(logFile, 1024)) {
+            assertEquals(251, repository.getSensors().size());
+            Sensor replayed = repository.getSensors().stream()
+                    .filter(s -> s.getSensorId().equals(door.getSensorId()))
+                    .findFirst().orElseThrow();
+            assertFalse(replayed.getActive());
+            assertEquals(ArmingStatus.ARMED_HOME, repository.getArmingStatus());
+
+            repository.setAlarmStatus(AlarmStatus.ALARM);
+            repository.compact();
+            assertEquals(0, Files.size(logFile));
+        }
+
+        try (WriteAheadLogSecurityRepositoryImpl repository = new WriteAheadLogSecurityRepositoryImpl(logFile)) {
+            assertEquals(251, repository.getSensors().size());
+            assertEquals(AlarmStatus.ALARM, repository.getAlarmStatus());
+        }
+    }
+}
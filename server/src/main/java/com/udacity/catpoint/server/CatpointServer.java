@@ -0,0 +1,162 @@
+package com.udacity.catpoint.server;
+
+import com.sun.net.httpserver.HttpServer;
+import com.udacity.catpoint.image.AwsImageService;
+import com.udacity.catpoint.image.CachingImageService;
+import com.udacity.catpoint.image.FakeImageService;
+import com.udacity.catpoint.image.ImageService;
+import com.udacity.catpoint.image.InstrumentedImageService;
+import com.udacity.catpoint.image.LazyImageService;
+import com.udacity.catpoint.image.LocalImageService;
+import com.udacity.catpoint.security.AlarmEventJournal;
+import com.udacity.catpoint.security.InstrumentedSecurityRepository;
+import com.udacity.catpoint.security.InstrumentedSecurityService;
+import com.udacity.catpoint.security.MemoryMappedSecurityRepositoryImpl;
+import com.udacity.catpoint.security.PretendDatabaseSecurityRepositoryImpl;
+import com.udacity.catpoint.security.SecurityRepository;
+import com.udacity.catpoint.security.SecurityService;
+import com.udacity.catpoint.security.SynchronizedSecurityRepository;
+import com.udacity.catpoint.security.WriteAheadLogSecurityRepositoryImpl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless launcher that hosts a SecurityService behind the JDK's embedded HTTP server, for
+ * boxes without a display that receive events from sensor gateways. See {@link SecurityApi} for
+ * the endpoints.
+ *
+ * Every request gets a thread of its own, so a request blocked on a repository write or an image
+ * verdict never holds up the others. Threads are kept for reuse while idle and capped at
+ * catpoint.server.threads; beyond that requests run on the server's dispatcher thread, which
+ * stops it accepting more until one finishes.
+ *
+ * Configured with the same catpoint.repository and catpoint.image system properties as the GUI,
+ * plus catpoint.server.port (default 8080) and catpoint.server.threads (default 256).
+ */
+public class CatpointServer implements Closeable {
+
+    private final HttpServer httpServer;
+    private final ExecutorService requestThreads;
+
+    public CatpointServer(SecurityService securityService, InetSocketAddress address, int maxThreads) {
+        //the server writes headers and body separately, so without TCP_NODELAY a keep-alive client
+        //waits out its delayed ACK (~40ms) on every response. Read once, when the first server starts.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        try {
+            httpServer = HttpServer.create(address, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to listen on " + address, e);
+        }
+        requestThreads = threadPerRequest(maxThreads);
+        httpServer.setExecutor(requestThreads);
+        new SecurityApi(securityService).register(httpServer);
+    }
+
+    /**
+     * On JDK 21 this is a drop-in place for Executors.newVirtualThreadPerTaskExecutor().
+     */
+    private static ExecutorService threadPerRequest(int maxThreads) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory threads = r -> {
+            Thread t = new Thread(r, "catpoint-http-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        return new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), threads,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public void start() {
+        httpServer.start();
+    }
+
+    /**
+     * @return The port the server listens on, useful when it was started on port 0
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, gives those in progress a second to finish and stops the threads.
+     */
+    @Override
+    public void close() {
+        httpServer.stop(1);
+        requestThreads.shutdownNow();
+    }
+
+    public static void main(String[] args) {
+        int port = Integer.getInteger("catpoint.server.port", 8080);
+        int maxThreads = Integer.getInteger("catpoint.server.threads", 256);
+
+        SecurityRepository securityRepository = new InstrumentedSecurityRepository(createSecurityRepository());
+        ImageService imageService = new InstrumentedImageService(withCache(new LazyImageService(CatpointServer::createImageService)));
+        SecurityService securityService = new InstrumentedSecurityService(securityRepository, imageService);
+        AlarmEventJournal eventJournal = new AlarmEventJournal();
+        securityService.setEventJournal(eventJournal);
+        securityService.setMotionThreshold(Double.parseDouble(System.getProperty("catpoint.motionThreshold", "-1")));
+
+        CatpointServer server = new CatpointServer(securityService, new InetSocketAddress(port), maxThreads);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            eventJournal.close();
+            if (securityRepository instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }, "catpoint-shutdown"));
+        server.start();
+        System.out.println("Catpoint server listening on port " + server.getPort());
+    }
+
+    /**
+     * Remembers recent verdicts when catpoint.imageCache gives the number of frames to keep, so
+     * frames that look the same as one seen in the last 30 seconds are not classified again.
+     */
+    private static ImageService withCache(ImageService imageService) {
+        int entries = Integer.getInteger("catpoint.imageCache", 0);
+        return entries > 0 ? new CachingImageService(imageService, entries, Duration.ofSeconds(30), 4) : imageService;
+    }
+
+    /**
+     * Picks the image service named by the catpoint.image system property: "aws" for Rekognition,
+     * "local" for the in-process classifier, anything else keeps the fake coin flip.
+     */
+    private static ImageService createImageService() {
+        return switch (System.getProperty("catpoint.image", "fake")) {
+            case "aws" -> new AwsImageService();
+            case "local" -> new LocalImageService();
+            default -> new FakeImageService();
+        };
+    }
+
+    /**
+     * Picks the repository implementation named by the catpoint.repository system property:
+     * "wal" for the append-only log store, "mapped" for the memory-mapped record store, anything
+     * else keeps the preferences store.
+     */
+    private static SecurityRepository createSecurityRepository() {
+        return switch (System.getProperty("catpoint.repository", "prefs")) {
+            case "wal" -> new WriteAheadLogSecurityRepositoryImpl();
+            case "mapped" -> new MemoryMappedSecurityRepositoryImpl();
+            //the preferences store has no locking of its own and is hit from every request thread
+            default -> new SynchronizedSecurityRepository(new PretendDatabaseSecurityRepositoryImpl());
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.udacity.catpoint.server;
+
+/**
+ * Thrown by a route to answer with an HTTP error status and a short message.
+ */
+class HttpError extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    HttpError(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,101 @@
+package com.udacity.catpoint.server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Runs a route and writes its result as JSON. A route returns the response body, or null for
+ * 204 No Content, and signals errors by throwing {@link HttpError}. Malformed JSON is answered with
+ * 400 and any other failure with 500.
+ */
+class JsonHandler implements HttpHandler {
+
+    static final Gson gson = new Gson();
+
+    private static final int MAX_JSON_BYTES = 64 * 1024;
+
+    /**
+     * One or more endpoints under a context path.
+     */
+    interface Route {
+        Object handle(HttpExchange exchange) throws IOException;
+    }
+
+    private final Route route;
+
+    JsonHandler(Route route) {
+        this.route = route;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            int status;
+            Object body;
+            try {
+                body = route.handle(exchange);
+                status = body == null ? 204 : 200;
+            } catch (HttpError e) {
+                status = e.getStatus();
+                body = Map.of("error", e.getMessage());
+            } catch (JsonParseException e) {
+                status = 400;
+                body = Map.of("error", "Malformed JSON");
+            } catch (RuntimeException e) {
+                status = 500;
+                body = Map.of("error", String.valueOf(e.getMessage()));
+            }
+            if (body == null) {
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+            byte[] json = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, json.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(json);
+            }
+        }
+    }
+
+    /**
+     * Reads the request body, refusing bodies larger than the limit with 413.
+     */
+    static byte[] readBody(HttpExchange exchange, int maxBytes) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(maxBytes + 1);
+            if (body.length > maxBytes) {
+                throw new HttpError(413, "Request body larger than " + maxBytes + " bytes");
+            }
+            return body;
+        }
+    }
+
+    /**
+     * Parses the JSON request body, answering 400 if it is missing.
+     */
+    static <T> T readJson(HttpExchange exchange, Class<T> type) throws IOException {
+        T value = gson.fromJson(new String(readBody(exchange, MAX_JSON_BYTES), StandardCharsets.UTF_8), type);
+        if (value == null) {
+            throw new HttpError(400, "Missing request body");
+        }
+        return value;
+    }
+
+    /**
+     * Answers 405 unless the request uses the given method.
+     */
+    static void requireMethod(HttpExchange exchange, String method) {
+        if (!exchange.getRequestMethod().equalsIgnoreCase(method)) {
+            throw new HttpError(405, exchange.getRequestMethod() + " not allowed on " + exchange.getRequestURI().getPath());
+        }
+    }
+}
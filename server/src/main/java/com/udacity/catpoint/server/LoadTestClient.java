@@ -0,0 +1,198 @@
+package com.udacity.catpoint.server;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.udacity.catpoint.core.LatencyHistogram;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load generator for {@link CatpointServer}. Each client thread sends a request, waits
+ * for the answer and sends the next, for the given number of seconds after a short warm-up, then
+ * the request rate and latency percentiles are printed.
+ *
+ * Usage: LoadTestClient [url] [threads] [seconds] [scenario], defaulting to
+ * http://localhost:8080 32 30 mixed. Scenarios are "status" (GET /status), "sensors" (toggling
+ * sensor activation), "images" (posting 320x240 JPEG frames) and "mixed" (70% status, 25% sensors,
+ * 5% arming). Sensors are created on the server as needed.
+ */
+public class LoadTestClient {
+
+    private static final int SENSORS = 64;
+    private static final Duration WARM_UP = Duration.ofSeconds(3);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final URI base;
+    private final String scenario;
+    private final List<String> sensorIds = new ArrayList<>();
+    private final byte[] frame = jpegFrame();
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    //failed requests by HTTP status, 0 for requests that got no answer
+    private final Map<Integer, LongAdder> errors = new ConcurrentSkipListMap<>();
+    private volatile boolean recording;
+
+    LoadTestClient(URI base, String scenario) {
+        this.base = base;
+        this.scenario = scenario;
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI base = URI.create(args.length > 0 ? args[0] : "http://localhost:8080");
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        String scenario = args.length > 3 ? args[3] : "mixed";
+
+        LoadTestClient loadTest = new LoadTestClient(base, scenario);
+        loadTest.createSensors();
+        System.out.println(loadTest.run(threads, Duration.ofSeconds(seconds)));
+    }
+
+    /**
+     * Makes sure the server has at least {@link #SENSORS} sensors and remembers their ids.
+     */
+    void createSensors() throws IOException, InterruptedException {
+        for (JsonElement sensor : JsonParser.parseString(send(get("/sensors"))).getAsJsonArray()) {
+            sensorIds.add(sensor.getAsJsonObject().get("sensorId").getAsString());
+        }
+        while (sensorIds.size() < SENSORS) {
+            String json = "{\"name\":\"load " + sensorIds.size() + "\",\"sensorType\":\"WINDOW\"}";
+            String created = send(json("POST", "/sensors", json));
+            sensorIds.add(JsonParser.parseString(created).getAsJsonObject().get("sensorId").getAsString());
+        }
+    }
+
+    /**
+     * Runs the scenario and describes the throughput and latency measured after the warm-up.
+     */
+    String run(int threads, Duration duration) throws InterruptedException {
+        List<Thread> clients = new ArrayList<>(threads);
+        long end = System.nanoTime() + WARM_UP.toNanos() + duration.toNanos();
+        for (int i = 0; i < threads; i++) {
+            Thread client = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    long start = System.nanoTime();
+                    int status = sendOne();
+                    if (recording) {
+                        latency.recordSince(start);
+                        if (status / 100 != 2) {
+                            errors.computeIfAbsent(status, s -> new LongAdder()).increment();
+                        }
+                    }
+                }
+            }, "catpoint-load-" + i);
+            clients.add(client);
+            client.start();
+        }
+        Thread.sleep(WARM_UP.toMillis());
+        recording = true;
+        long start = System.nanoTime();
+        for (Thread client : clients) {
+            client.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return String.format("%s: %d threads, %.1fs, %d requests, %.0f req/s, errors by status %s%n"
+                        + "latency ms: mean %.2f p50 %.2f p90 %.2f p99 %.2f p99.9 %.2f max %.2f",
+                scenario, threads, seconds, latency.getCount(), latency.getCount() / seconds, errors,
+                latency.getMeanMicros() / 1000, latency.getP50Micros() / 1000, latency.getP90Micros() / 1000,
+                latency.getP99Micros() / 1000, latency.getP999Micros() / 1000, latency.getMaxMicros() / 1000);
+    }
+
+    /**
+     * Sends the next request of the scenario.
+     * @return The HTTP status of the answer, or 0 if there was none
+     */
+    private int sendOne() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HttpRequest request = switch (scenario) {
+            case "status" -> get("/status");
+            case "sensors" -> toggleSensor(random);
+            case "images" -> HttpRequest.newBuilder(base.resolve("/images?camera=load"))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(frame))
+                    .header("Content-Type", "image/jpeg")
+                    .build();
+            default -> {
+                int roll = random.nextInt(100);
+                if (roll < 70) {
+                    yield get("/status");
+                } else if (roll < 95) {
+                    yield toggleSensor(random);
+                }
+                yield json("PUT", "/arming", random.nextBoolean()
+                        ? "{\"armingStatus\":\"ARMED_HOME\"}" : "{\"armingStatus\":\"DISARMED\"}");
+            }
+        };
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    private HttpRequest toggleSensor(ThreadLocalRandom random) {
+        String id = sensorIds.get(random.nextInt(sensorIds.size()));
+        return json("PUT", "/sensors/" + id + "/active", "{\"active\":" + random.nextBoolean() + "}");
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).GET().build();
+    }
+
+    private HttpRequest json(String method, String path, String body) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json")
+                .build();
+    }
+
+    private String send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException(request.method() + " " + request.uri() + " answered " + response.statusCode()
+                    + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    /**
+     * A plain frame with a few shapes, encoded once and posted by every image request.
+     */
+    private static byte[] jpegFrame() {
+        BufferedImage image = new BufferedImage(320, 240, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(new Color(90, 120, 80));
+        g.fillRect(0, 0, 320, 240);
+        g.setColor(new Color(200, 140, 60));
+        g.fillOval(110, 80, 100, 70);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "jpg", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
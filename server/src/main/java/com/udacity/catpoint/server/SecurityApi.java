@@ -0,0 +1,245 @@
+package com.udacity.catpoint.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.ArmingStatus;
+import com.udacity.catpoint.core.Sensor;
+import com.udacity.catpoint.core.SensorType;
+import com.udacity.catpoint.security.SecurityService;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * The HTTP endpoints of the headless server, all speaking JSON:
+ *
+ * GET /status returns the alarm and arming status and the sensor counts.
+ * GET /sensors lists the sensors, POST /sensors with {"name", "sensorType"} adds one and
+ * DELETE /sensors/(id) removes it.
+ * PUT /sensors/(id)/active with {"active": true} activates or deactivates a sensor.
+ * PUT /arming with {"armingStatus": "ARMED_HOME"} arms or disarms the system.
+ * POST /images?camera=(id) with a JPEG or PNG body analyzes a camera frame and returns {"cat": true}.
+ *
+ * Changes to the same sensor are serialized, as SecurityService expects, and arming, which may
+ * deactivate every sensor at once, excludes them all. Sensors are answered with a copy taken under
+ * the sensor's lock rather than the live object. Everything else runs concurrently on the request
+ * threads.
+ */
+public class SecurityApi {
+
+    private static final int MAX_IMAGE_BYTES = 16 * 1024 * 1024;
+
+    private final SecurityService securityService;
+    private final Map<UUID, Sensor> sensorsById = new ConcurrentHashMap<>();
+    //read side for changes to single sensors, write side for arming
+    private final ReadWriteLock sensorsLock = new ReentrantReadWriteLock();
+
+    static class Status {
+        AlarmStatus alarmStatus;
+        ArmingStatus armingStatus;
+        int sensors;
+        int activeSensors;
+    }
+
+    /**
+     * A sensor as it was when the response was built, with the same JSON shape as Sensor.
+     */
+    static class SensorView {
+        UUID sensorId;
+        String name;
+        boolean active;
+        SensorType sensorType;
+    }
+
+    static class NewSensor {
+        String name;
+        SensorType sensorType;
+    }
+
+    static class Activation {
+        Boolean active;
+    }
+
+    static class Arming {
+        ArmingStatus armingStatus;
+    }
+
+    public SecurityApi(SecurityService securityService) {
+        this.securityService = securityService;
+        for (Sensor sensor : List.copyOf(securityService.getSensors())) {
+            sensorsById.put(sensor.getSensorId(), sensor);
+        }
+    }
+
+    /**
+     * Adds the endpoints to the server.
+     */
+    public void register(HttpServer server) {
+        server.createContext("/status", new JsonHandler(this::status));
+        server.createContext("/sensors", new JsonHandler(this::sensors));
+        server.createContext("/arming", new JsonHandler(this::arming));
+        server.createContext("/images", new JsonHandler(this::images));
+    }
+
+    private Status status(HttpExchange exchange) {
+        JsonHandler.requireMethod(exchange, "GET");
+        return currentStatus();
+    }
+
+    private Status currentStatus() {
+        Status status = new Status();
+        status.alarmStatus = securityService.getAlarmStatus();
+        status.armingStatus = securityService.getArmingStatus();
+        status.sensors = sensorsById.size();
+        status.activeSensors = securityService.getActiveSensorCount();
+        return status;
+    }
+
+    private Object sensors(HttpExchange exchange) throws IOException {
+        //the path is /sensors, /sensors/(id) or /sensors/(id)/active
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        String method = exchange.getRequestMethod().toUpperCase();
+        if (path.length == 2) {
+            return switch (method) {
+                case "GET" -> sensorsById.values().stream().map(SecurityApi::view).collect(Collectors.toList());
+                case "POST" -> addSensor(JsonHandler.readJson(exchange, NewSensor.class));
+                default -> throw new HttpError(405, method + " not allowed on /sensors");
+            };
+        }
+        Sensor sensor = sensorsById.get(parseId(path[2]));
+        if (sensor == null) {
+            throw new HttpError(404, "No sensor " + path[2]);
+        }
+        if (path.length == 3) {
+            return switch (method) {
+                case "GET" -> view(sensor);
+                case "DELETE" -> removeSensor(sensor);
+                default -> throw new HttpError(405, method + " not allowed on a sensor");
+            };
+        }
+        if (path.length == 4 && path[3].equals("active")) {
+            JsonHandler.requireMethod(exchange, "PUT");
+            Activation activation = JsonHandler.readJson(exchange, Activation.class);
+            if (activation.active == null) {
+                throw new HttpError(400, "active is required");
+            }
+            sensorsLock.readLock().lock();
+            try {
+                synchronized (sensor) {
+                    securityService.changeSensorActivationStatus(sensor, activation.active);
+                    return view(sensor);
+                }
+            } finally {
+                sensorsLock.readLock().unlock();
+            }
+        }
+        throw new HttpError(404, "No such endpoint " + exchange.getRequestURI().getPath());
+    }
+
+    private SensorView addSensor(NewSensor request) {
+        if (request.name == null || request.name.isBlank() || request.sensorType == null) {
+            throw new HttpError(400, "name and a sensorType of " + List.of(SensorType.values()) + " are required");
+        }
+        Sensor sensor = new Sensor(request.name, request.sensorType);
+        try {
+            securityService.addSensor(sensor);
+        } catch (IllegalArgumentException e) {
+            throw new HttpError(400, e.getMessage()); //e.g. a name too long for the store
+        }
+        sensorsById.put(sensor.getSensorId(), sensor);
+        return view(sensor);
+    }
+
+    private Object removeSensor(Sensor sensor) {
+        sensorsLock.readLock().lock();
+        try {
+            synchronized (sensor) {
+                securityService.removeSensor(sensor);
+            }
+        } finally {
+            sensorsLock.readLock().unlock();
+        }
+        sensorsById.remove(sensor.getSensorId());
+        return null;
+    }
+
+    private static SensorView view(Sensor sensor) {
+        SensorView view = new SensorView();
+        synchronized (sensor) {
+            view.sensorId = sensor.getSensorId();
+            view.name = sensor.getName();
+            view.active = sensor.getActive();
+            view.sensorType = sensor.getSensorType();
+        }
+        return view;
+    }
+
+    private Status arming(HttpExchange exchange) throws IOException {
+        JsonHandler.requireMethod(exchange, "PUT");
+        Arming arming = JsonHandler.readJson(exchange, Arming.class);
+        if (arming.armingStatus == null) {
+            throw new HttpError(400, "armingStatus must be one of " + List.of(ArmingStatus.values()));
+        }
+        sensorsLock.writeLock().lock();
+        try {
+            securityService.setArmingStatus(arming.armingStatus);
+        } finally {
+            sensorsLock.writeLock().unlock();
+        }
+        return currentStatus();
+    }
+
+    private Map<String, Boolean> images(HttpExchange exchange) throws IOException {
+        JsonHandler.requireMethod(exchange, "POST");
+        String camera = cameraOf(exchange.getRequestURI().getRawQuery());
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(JsonHandler.readBody(exchange, MAX_IMAGE_BYTES)));
+        if (image == null) {
+            throw new HttpError(415, "Body is not a readable image");
+        }
+        try {
+            return Map.of("cat", securityService.processImageAsync(camera, image).join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw new HttpError(503, "Image analysis is saturated, retry later");
+            }
+            if (e.getCause() instanceof TimeoutException) {
+                throw new HttpError(504, "Image analysis timed out");
+            }
+            throw e;
+        }
+    }
+
+    private static String cameraOf(String query) {
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith("camera=") && parameter.length() > "camera=".length()) {
+                    return URLDecoder.decode(parameter.substring("camera=".length()), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        return SecurityService.DEFAULT_CAMERA;
+    }
+
+    private static UUID parseId(String id) {
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            throw new HttpError(404, "No sensor " + id);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+module com.udacity.catpoint.server {
+    exports com.udacity.catpoint.server;
+    requires com.udacity.catpoint.core;
+    requires com.udacity.catpoint.image;
+    requires com.udacity.catpoint.security;
+    requires com.google.gson;
+    requires java.desktop;
+    requires java.net.http;
+    requires jdk.httpserver;
+    opens com.udacity.catpoint.server to com.google.gson;
+}
@@ -0,0 +1,103 @@
+package com.udacity.catpoint.server;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.udacity.catpoint.core.AlarmStatus;
+import com.udacity.catpoint.core.ArmingStatus;
+import com.udacity.catpoint.image.FakeImageService;
+import com.udacity.catpoint.security.SecurityService;
+import com.udacity.catpoint.security.WriteAheadLogSecurityRepositoryImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatpointServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private WriteAheadLogSecurityRepositoryImpl repository;
+    private CatpointServer server;
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @BeforeEach
+    void setUp() {
+        repository = new WriteAheadLogSecurityRepositoryImpl(tempDir.resolve("security.wal"), 1 << 20);
+        SecurityService securityService = new SecurityService(repository, new FakeImageService());
+        server = new CatpointServer(securityService, new InetSocketAddress("127.0.0.1", 0), 8);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+        repository.close();
+    }
+
+    private HttpResponse<String> send(String method, String path, String json) throws IOException, InterruptedException {
+        HttpRequest.BodyPublisher body = json == null
+                ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(json);
+        return client.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path))
+                .method(method, body).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static JsonObject json(HttpResponse<String> response) {
+        return JsonParser.parseString(response.body()).getAsJsonObject();
+    }
+
+    @Test
+    void armedSystem_activatedSensor_raisesPendingAlarm() throws Exception {
+        HttpResponse<String> created = send("POST", "/sensors", "{\"name\":\"front door\",\"sensorType\":\"DOOR\"}");
+        assertEquals(200, created.statusCode());
+        String id = json(created).get("sensorId").getAsString();
+
+        assertEquals(200, send("PUT", "/arming", "{\"armingStatus\":\"ARMED_HOME\"}").statusCode());
+        HttpResponse<String> activated = send("PUT", "/sensors/" + id + "/active", "{\"active\":true}");
+        assertTrue(json(activated).get("active").getAsBoolean());
+
+        JsonObject status = json(send("GET", "/status", null));
+        assertEquals(AlarmStatus.PENDING_ALARM.name(), status.get("alarmStatus").getAsString());
+        assertEquals(ArmingStatus.ARMED_HOME.name(), status.get("armingStatus").getAsString());
+        assertEquals(1, status.get("activeSensors").getAsInt());
+        assertEquals(1, repository.getSensors().size());
+
+        assertEquals(204, send("DELETE", "/sensors/" + id, null).statusCode());
+        assertEquals(0, json(send("GET", "/status", null)).get("sensors").getAsInt());
+    }
+
+    @Test
+    void badRequests_areAnsweredWithErrorStatus() throws Exception {
+        assertEquals(400, send("PUT", "/arming", "{\"armingStatus\":\"ARMED_SOMETIMES\"}").statusCode());
+        assertEquals(400, send("PUT", "/arming", "{not json").statusCode());
+        assertEquals(400, send("POST", "/sensors", "{\"name\":\"\",\"sensorType\":\"DOOR\"}").statusCode());
+        assertEquals(404, send("PUT", "/sensors/no-such-sensor/active", "{\"active\":true}").statusCode());
+        assertEquals(405, send("DELETE", "/status", null).statusCode());
+        assertEquals(415, send("POST", "/images", "not an image").statusCode());
+    }
+
+    @Test
+    void postedImage_returnsVerdict() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB), "png", png);
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                        URI.create("http://127.0.0.1:" + server.getPort() + "/images?camera=garden"))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(png.toByteArray())).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertTrue(json(response).has("cat"));
+    }
+}